@@ -0,0 +1,67 @@
+package com.firstclub.firstclub.benchmark;
+
+import com.firstclub.firstclub.FirstclubApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application against a private in-memory H2 database for benchmarking.
+ */
+final class BenchmarkApplication {
+    
+    private BenchmarkApplication() {
+    }
+    
+    /**
+     * Start a non-web application context.
+     * 
+     * @param databaseName name of the in-memory database, unique per benchmark
+     * @param extraProperties additional properties in {@code key=value} form
+     * @return the running context
+     */
+    static ConfigurableApplicationContext start(String databaseName, String... extraProperties) {
+        return new SpringApplicationBuilder(FirstclubApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments(databaseName, extraProperties));
+    }
+    
+    /**
+     * Start a servlet application context on a random port.
+     * 
+     * @param databaseName name of the in-memory database, unique per benchmark
+     * @param extraProperties additional properties in {@code key=value} form
+     * @return the running context
+     */
+    static ConfigurableApplicationContext startWeb(String databaseName, String... extraProperties) {
+        String[] properties = Arrays.copyOf(extraProperties, extraProperties.length + 1);
+        properties[extraProperties.length] = "server.port=0";
+        return new SpringApplicationBuilder(FirstclubApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(arguments(databaseName, properties));
+    }
+    
+    /**
+     * Properties are passed as command-line arguments so they take precedence over
+     * application.properties, which default properties would not.
+     */
+    private static String[] arguments(String databaseName, String... extraProperties) {
+        return Stream.concat(
+                        Stream.of(
+                                "spring.main.banner-mode=off",
+                                "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+                                "spring.jpa.show-sql=false",
+                                "logging.level.root=WARN",
+                                "logging.level.com.firstclub.firstclub=WARN",
+                                "logging.level.org.hibernate.SQL=WARN",
+                                "firstclub.expiry-sweep.cron=-",
+                                "firstclub.expiry-wheel.enabled=false",
+                                "firstclub.history-log.directory=target/benchmark-history/" + databaseName),
+                        Arrays.stream(extraProperties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+    }
+}
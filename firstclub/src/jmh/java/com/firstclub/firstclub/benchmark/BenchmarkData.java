@@ -0,0 +1,73 @@
+package com.firstclub.firstclub.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds synthetic users and subscriptions directly over JDBC.
+ */
+final class BenchmarkData {
+    
+    private static final int BATCH_SIZE = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    BenchmarkData(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Insert users with increasing order history.
+     * 
+     * @param prefix email prefix, unique per call
+     * @param count number of users
+     * @return ids of the inserted users in insertion order
+     */
+    List<Long> seedUsers(String prefix, int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{prefix + i + "@bench.firstclub.com", "Bench User " + i, i % 40, (i % 40) * 5000L, now, now});
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (email, name, total_order_count, total_order_value, " +
+                        "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE email LIKE ? ORDER BY id",
+                Long.class, prefix + "%");
+    }
+    
+    /**
+     * Insert one subscription per user.
+     * 
+     * @param userIds the users
+     * @param status subscription status
+     * @param endDate end date for every row
+     * @param autoRenew auto-renew flag for every row
+     */
+    void seedSubscriptions(List<Long> userIds, String status, LocalDateTime endDate, boolean autoRenew) {
+        long planId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM membership_plans", Long.class);
+        long tierId = jdbcTemplate.queryForObject(
+                "SELECT id FROM membership_tiers WHERE tier_level = 'SILVER'", Long.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp end = Timestamp.valueOf(endDate);
+        Timestamp start = Timestamp.valueOf(endDate.minusDays(30));
+        
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < userIds.size(); i++) {
+            Long activeUserId = "ACTIVE".equals(status) ? userIds.get(i) : null;
+            rows.add(new Object[]{userIds.get(i), planId, tierId, status, start, end, autoRenew, activeUserId, now, now});
+            if (rows.size() == BATCH_SIZE || i == userIds.size() - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO subscriptions (id, user_id, plan_id, tier_id, status, " +
+                        "start_date, end_date, auto_renew, active_user_id, version, created_at, updated_at) " +
+                        "VALUES (NEXT VALUE FOR subscriptions_seq, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.firstclub.firstclub.benchmark;
+
+import com.firstclub.firstclub.service.ExpirySweepEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full expiry sweep over a table where every active subscription is overdue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ExpirySweepBenchmark {
+    
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private ExpirySweepEngine expirySweepEngine;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("expiry-bench-" + rows);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        expirySweepEngine = context.getBean(ExpirySweepEngine.class);
+        
+        BenchmarkData data = new BenchmarkData(jdbcTemplate);
+        List<Long> userIds = data.seedUsers("expiring", rows);
+        data.seedSubscriptions(userIds, "ACTIVE", LocalDateTime.now().minusDays(1), false);
+    }
+    
+    @Setup(Level.Invocation)
+    public void reactivate() {
+        jdbcTemplate.update("UPDATE subscriptions SET status = 'ACTIVE', active_user_id = user_id");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public ExpirySweepEngine.SweepResult sweep() {
+        return expirySweepEngine.sweep();
+    }
+}
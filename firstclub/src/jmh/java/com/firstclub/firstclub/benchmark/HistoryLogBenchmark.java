@@ -0,0 +1,83 @@
+package com.firstclub.firstclub.benchmark;
+
+import com.firstclub.firstclub.config.HistoryLogProperties;
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
+import com.firstclub.firstclub.service.SubscriptionHistoryLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cost of recording a history event on the request thread. Each operation stands
+ * in for a request doing a fixed amount of other work, which keeps the event rate
+ * within what the writer thread sustains so events are written rather than
+ * dropped; the overhead is the difference between the {@code withRecord} and
+ * {@code baseline} scores. The dropped count printed at the end should be zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HistoryLogBenchmark {
+    
+    @Param({"1000"})
+    public long requestWork;
+    
+    private final AtomicLong nextId = new AtomicLong();
+    private final LocalDateTime endDate = LocalDateTime.now().plusDays(30);
+    
+    private Path directory;
+    private SubscriptionHistoryLog historyLog;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-benchmark");
+        HistoryLogProperties properties = new HistoryLogProperties();
+        properties.setDirectory(directory.toString());
+        historyLog = new SubscriptionHistoryLog(properties);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        historyLog.flush(TimeUnit.SECONDS.toMillis(30));
+        historyLog.close();
+        System.out.println("History events dropped: " + historyLog.getDropped());
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+    
+    @Benchmark
+    public void baseline() {
+        Blackhole.consumeCPU(requestWork);
+    }
+    
+    @Benchmark
+    public void withRecord() {
+        Blackhole.consumeCPU(requestWork);
+        long id = nextId.incrementAndGet();
+        historyLog.record(SubscriptionHistoryDTO.Event.CREATED, id, id, 2L, endDate);
+    }
+}
@@ -0,0 +1,68 @@
+package com.firstclub.firstclub.benchmark;
+
+import com.firstclub.firstclub.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order-stat ingestion through {@link UserService#updateUserOrderStats}, buffered
+ * and write-through. Run with {@code -t} to measure contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderStatsBenchmark {
+    
+    @Param("10000")
+    public int datasetSize;
+    
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private List<Long> userIds;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("order-stats-bench");
+        userService = context.getBean(UserService.class);
+        userIds = new BenchmarkData(context.getBean(JdbcTemplate.class)).seedUsers("orders", datasetSize);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public void updateOrderStats() {
+        userService.updateUserOrderStats(randomUser(), 1999L);
+    }
+    
+    @Benchmark
+    public void updateOrderStatsSync() {
+        userService.updateUserOrderStats(randomUser(), 1999L, true);
+    }
+    
+    private long randomUser() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+}
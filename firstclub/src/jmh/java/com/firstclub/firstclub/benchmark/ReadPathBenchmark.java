@@ -0,0 +1,131 @@
+package com.firstclub.firstclub.benchmark;
+
+import com.firstclub.firstclub.dto.BenefitDTO;
+import com.firstclub.firstclub.dto.CursorPage;
+import com.firstclub.firstclub.dto.MembershipPlanDTO;
+import com.firstclub.firstclub.dto.MembershipTierDTO;
+import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.dto.UserDTO;
+import com.firstclub.firstclub.model.Benefit;
+import com.firstclub.firstclub.service.BenefitService;
+import com.firstclub.firstclub.service.MembershipPlanService;
+import com.firstclub.firstclub.service.MembershipTierService;
+import com.firstclub.firstclub.service.SubscriptionService;
+import com.firstclub.firstclub.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO read paths of each service, measured through their public
+ * lookups since the conversions themselves are private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadPathBenchmark {
+    
+    @Param("10000")
+    public int datasetSize;
+    
+    private ConfigurableApplicationContext context;
+    private SubscriptionService subscriptionService;
+    private UserService userService;
+    private MembershipPlanService planService;
+    private MembershipTierService tierService;
+    private BenefitService benefitService;
+    private List<Long> userIds;
+    private List<Long> subscriptionIds;
+    private long planId;
+    private long tierId;
+    private long benefitId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("read-bench");
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        subscriptionService = context.getBean(SubscriptionService.class);
+        userService = context.getBean(UserService.class);
+        planService = context.getBean(MembershipPlanService.class);
+        tierService = context.getBean(MembershipTierService.class);
+        benefitService = context.getBean(BenefitService.class);
+        
+        BenchmarkData data = new BenchmarkData(jdbcTemplate);
+        userIds = data.seedUsers("reader", datasetSize);
+        data.seedSubscriptions(userIds, "ACTIVE", LocalDateTime.now().plusDays(30), false);
+        subscriptionIds = jdbcTemplate.queryForList("SELECT id FROM subscriptions", Long.class);
+        planId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM membership_plans", Long.class);
+        tierId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM membership_tiers", Long.class);
+        
+        BenefitDTO benefit = new BenefitDTO();
+        benefit.setTierId(tierId);
+        benefit.setName("Bench discount");
+        benefit.setBenefitType(Benefit.BenefitType.DISCOUNT);
+        benefit.setValue("5");
+        benefitId = benefitService.createBenefit(benefit).getId();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public SubscriptionDTO subscriptionById() {
+        return subscriptionService.getSubscriptionById(random(subscriptionIds));
+    }
+    
+    @Benchmark
+    public SubscriptionDTO activeSubscription() {
+        return subscriptionService.getActiveSubscription(random(userIds));
+    }
+    
+    @Benchmark
+    public CursorPage<SubscriptionDTO> subscriptionPage() {
+        return subscriptionService.getAllSubscriptions(null, CursorPage.DEFAULT_LIMIT);
+    }
+    
+    @Benchmark
+    public UserDTO userById() {
+        return userService.getUserById(random(userIds));
+    }
+    
+    @Benchmark
+    public MembershipPlanDTO planById() {
+        return planService.getPlanById(planId);
+    }
+    
+    @Benchmark
+    public MembershipTierDTO tierById() {
+        return tierService.getTierById(tierId);
+    }
+    
+    @Benchmark
+    public BenefitDTO benefitById() {
+        return benefitService.getBenefitById(benefitId);
+    }
+    
+    private static long random(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.firstclub.firstclub.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.firstclub.dto.ApiResponse;
+import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.model.Subscription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a subscription list response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SerializationBenchmark {
+    
+    @Param({"50", "500"})
+    public int size;
+    
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<SubscriptionDTO>> response;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.now();
+        List<SubscriptionDTO> subscriptions = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            subscriptions.add(new SubscriptionDTO(i, i, "Bench User " + i, "user" + i + "@bench.firstclub.com",
+                    1L, "Monthly Membership", 2L, "Gold", Subscription.SubscriptionStatus.ACTIVE,
+                    now, now.plusDays(30), Boolean.FALSE));
+        }
+        response = ApiResponse.success(subscriptions);
+    }
+    
+    @Benchmark
+    public byte[] serializeSubscriptionList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
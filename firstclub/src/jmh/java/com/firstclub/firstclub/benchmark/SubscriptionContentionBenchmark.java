@@ -0,0 +1,104 @@
+package com.firstclub.firstclub.benchmark;
+
+import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.dto.SubscriptionRequest;
+import com.firstclub.firstclub.service.SubscriptionService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create-then-cancel cycles from 64 threads, either all against one user or
+ * spread over many, to show that per-user serialization only costs throughput
+ * when writes actually collide. A trial fails if any user ever ends up with more
+ * than one active subscription.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class SubscriptionContentionBenchmark {
+    
+    @Param({"1", "10000"})
+    public int users;
+    
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private SubscriptionService subscriptionService;
+    private List<Long> userIds;
+    private long planId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("contention-bench-" + users);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        subscriptionService = context.getBean(SubscriptionService.class);
+        userIds = new BenchmarkData(jdbcTemplate).seedUsers("contended", users);
+        planId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM membership_plans", Long.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            Long duplicated = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT user_id FROM subscriptions " +
+                    "WHERE status = 'ACTIVE' GROUP BY user_id HAVING COUNT(*) > 1)", Long.class);
+            if (duplicated != null && duplicated > 0) {
+                throw new IllegalStateException(duplicated + " users have more than one active subscription");
+            }
+        } finally {
+            context.close();
+        }
+    }
+    
+    @Benchmark
+    public void createThenCancel(Outcomes outcomes) {
+        Long userId = userIds.get(users == 1 ? 0 : ThreadLocalRandom.current().nextInt(users));
+        try {
+            SubscriptionDTO created = subscriptionService.createSubscription(
+                    new SubscriptionRequest(userId, planId, false));
+            subscriptionService.cancelSubscription(created.getId());
+            outcomes.cycles++;
+        } catch (RuntimeException e) {
+            outcomes.rejected++;
+        }
+    }
+    
+    /**
+     * Completed cycles versus creates rejected because the user already had an
+     * active subscription or the write timed out waiting for the user's lock.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        
+        public long cycles;
+        public long rejected;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            cycles = 0;
+            rejected = 0;
+        }
+    }
+}
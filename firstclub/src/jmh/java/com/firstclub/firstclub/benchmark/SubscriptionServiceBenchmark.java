@@ -0,0 +1,113 @@
+package com.firstclub.firstclub.benchmark;
+
+import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.dto.SubscriptionRequest;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.service.MembershipTierService;
+import com.firstclub.firstclub.service.SubscriptionService;
+import com.firstclub.firstclub.service.TierEligibilityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subscription write path and tier calculation.
+ * 
+ * {@code createSubscription} draws users from a pool without an active
+ * subscription; the pool is reset before every iteration and must be larger than
+ * the number of operations one iteration performs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SubscriptionServiceBenchmark {
+    
+    @Param("10000")
+    public int datasetSize;
+    
+    @Param("200000")
+    public int createPoolSize;
+    
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private SubscriptionService subscriptionService;
+    private MembershipTierService tierService;
+    private TierEligibilityIndex tierEligibilityIndex;
+    private long planId;
+    private List<Long> subscribedUserIds;
+    private List<Long> poolUserIds;
+    private final AtomicInteger nextPoolUser = new AtomicInteger();
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("subscription-bench");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        subscriptionService = context.getBean(SubscriptionService.class);
+        tierService = context.getBean(MembershipTierService.class);
+        tierEligibilityIndex = context.getBean(TierEligibilityIndex.class);
+        
+        BenchmarkData data = new BenchmarkData(jdbcTemplate);
+        subscribedUserIds = data.seedUsers("subscribed", datasetSize);
+        data.seedSubscriptions(subscribedUserIds, "ACTIVE", LocalDateTime.now().plusDays(30), false);
+        poolUserIds = data.seedUsers("pool", createPoolSize);
+        planId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM membership_plans", Long.class);
+    }
+    
+    @Setup(Level.Iteration)
+    public void resetPool() {
+        jdbcTemplate.update("UPDATE subscriptions SET status = 'EXPIRED', active_user_id = NULL " +
+                "WHERE status = 'ACTIVE' AND user_id >= ?", poolUserIds.get(0));
+        nextPoolUser.set(0);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public SubscriptionDTO createSubscription() {
+        int index = nextPoolUser.getAndIncrement();
+        if (index >= poolUserIds.size()) {
+            throw new IllegalStateException("createPoolSize too small for one iteration");
+        }
+        return subscriptionService.createSubscription(
+                new SubscriptionRequest(poolUserIds.get(index), planId, false));
+    }
+    
+    @Benchmark
+    public MembershipTier calculateUserTier() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return tierEligibilityIndex.findBestTier(random.nextInt(40), random.nextLong(200_000));
+    }
+    
+    @Benchmark
+    public Object calculateEligibleTier() {
+        return tierService.calculateEligibleTier(randomSubscribedUser());
+    }
+    
+    private long randomSubscribedUser() {
+        return subscribedUserIds.get(ThreadLocalRandom.current().nextInt(subscribedUserIds.size()));
+    }
+}
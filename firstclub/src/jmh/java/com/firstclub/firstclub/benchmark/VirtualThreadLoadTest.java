@@ -0,0 +1,182 @@
+package com.firstclub.firstclub.benchmark;
+
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test comparing platform-thread and virtual-thread request
+ * handling at increasing numbers of concurrent connections.
+ * 
+ * Each mode boots the application on a random port with the same Tomcat
+ * connection limits and JDBC pool size, so the only difference is what a blocked
+ * request occupies. Every client is a virtual thread that keeps one request in
+ * flight against the user and active-subscription lookups; the subscription cache
+ * is disabled so every request reaches JDBC.
+ * 
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *     -Dbenchmark.main=com.firstclub.firstclub.benchmark.VirtualThreadLoadTest \
+ *     -Djmh.args="1000,5000,10000 20"
+ * </pre>
+ * Arguments are the comma-separated concurrency levels and the seconds measured
+ * per level. Raise the open-file limit first: each connection costs a descriptor
+ * on both the client and the server side.
+ */
+public final class VirtualThreadLoadTest {
+    
+    private static final int USERS = 10_000;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final int WARMUP_CONCURRENCY = 200;
+    
+    private VirtualThreadLoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int[] concurrencyLevels = args.length > 0
+                ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1000, 5000, 10000};
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            try (ConfigurableApplicationContext context = BenchmarkApplication.startWeb("load-" + mode,
+                    "spring.threads.virtual.enabled=" + virtual,
+                    "server.tomcat.threads.max=200",
+                    "server.tomcat.max-connections=20000",
+                    "server.tomcat.accept-count=1000",
+                    "spring.datasource.hikari.maximum-pool-size=32",
+                    "spring.datasource.hikari.connection-timeout=5000",
+                    "firstclub.active-subscription-cache.maximum-size=0")) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                BenchmarkData data = new BenchmarkData(context.getBean(JdbcTemplate.class));
+                List<Long> userIds = data.seedUsers("load-" + mode, USERS);
+                data.seedSubscriptions(userIds, "ACTIVE", LocalDateTime.now().plusDays(30), false);
+                
+                run(mode, port, userIds, WARMUP_CONCURRENCY, WARMUP);
+                for (int concurrency : concurrencyLevels) {
+                    Result result = run(mode, port, userIds, concurrency, duration);
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+        }
+        
+        System.out.println();
+        System.out.println(Result.HEADER);
+        results.forEach(System.out::println);
+    }
+    
+    private static Result run(String mode, int port, List<Long> userIds, int concurrency, Duration duration)
+            throws InterruptedException {
+        String baseUrl = "http://localhost:" + port;
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        LatencyRecorder[] recorders = new LatencyRecorder[concurrency];
+        
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders[i] = recorder;
+                clientThreads.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Long userId = userIds.get(random.nextInt(userIds.size()));
+                        String path = random.nextBoolean()
+                                ? "/api/users/" + userId
+                                : "/api/subscriptions/user/" + userId + "/active";
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                recorder.record(System.nanoTime() - start);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        return Result.of(mode, concurrency, duration, recorders, errors.get());
+    }
+    
+    /**
+     * Growable per-client latency buffer, written by a single thread.
+     */
+    private static final class LatencyRecorder {
+        
+        private long[] latencies = new long[1024];
+        private int size;
+        
+        void record(long nanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+        }
+    }
+    
+    private record Result(String mode, int concurrency, long requests, long errors, double throughput,
+                          double p50Millis, double p99Millis, double maxMillis) {
+        
+        static final String HEADER = String.format("%-9s %11s %10s %8s %10s %9s %9s %9s",
+                "mode", "connections", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        
+        static Result of(String mode, int concurrency, Duration duration, LatencyRecorder[] recorders, long errors) {
+            int total = Arrays.stream(recorders).mapToInt(recorder -> recorder.size).sum();
+            long[] all = new long[total];
+            int offset = 0;
+            for (LatencyRecorder recorder : recorders) {
+                System.arraycopy(recorder.latencies, 0, all, offset, recorder.size);
+                offset += recorder.size;
+            }
+            Arrays.sort(all);
+            return new Result(mode, concurrency, total, errors,
+                    total / (double) duration.toSeconds(),
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 1.0));
+        }
+        
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%-9s %11d %10d %8d %10.0f %9.2f %9.2f %9.2f",
+                    mode, concurrency, requests, errors, throughput, p50Millis, p99Millis, maxMillis);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.firstclub.firstclub;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class FirstclubApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,24 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the per-user active subscription cache.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.active-subscription-cache")
+public class ActiveSubscriptionCacheProperties {
+    
+    /**
+     * Maximum number of users whose active subscription is cached.
+     */
+    private long maximumSize = 100_000;
+    
+    /**
+     * How long an entry is kept after it was loaded.
+     */
+    private Duration ttl = Duration.ofMinutes(1);
+}
@@ -7,6 +7,7 @@ import com.firstclub.firstclub.repository.MembershipTierRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component
 @RequiredArgsConstructor
@@ -16,6 +17,7 @@ public class DataInitializer implements CommandLineRunner {
     private final MembershipTierRepository tierRepository;
     
     @Override
+    @Transactional
     public void run(String... args) {
         initializeMembershipPlans();
         initializeMembershipTiers();
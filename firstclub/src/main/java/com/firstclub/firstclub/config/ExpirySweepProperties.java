@@ -0,0 +1,27 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the scheduled subscription expiry sweep.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.expiry-sweep")
+public class ExpirySweepProperties {
+    
+    /**
+     * Cron expression for the sweep; "-" disables scheduling.
+     */
+    private String cron = "0 */5 * * * *";
+    
+    /**
+     * Number of subscriptions read and updated per chunk.
+     */
+    private int chunkSize = 500;
+    
+    /**
+     * Number of chunks processed concurrently.
+     */
+    private int parallelism = 4;
+}
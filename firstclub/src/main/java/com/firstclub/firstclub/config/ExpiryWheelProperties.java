@@ -0,0 +1,45 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the in-memory wheel that fires subscription expiry and renewal at
+ * each subscription's end date.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.expiry-wheel")
+public class ExpiryWheelProperties {
+    
+    /**
+     * Whether subscriptions are tracked in the wheel and fired when due.
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Number of day slots. Subscriptions ending within one day less than this are
+     * loaded on each refill, so the refill must run more often than that.
+     */
+    private int horizonDays = 2;
+    
+    /**
+     * Cron expression for reloading upcoming end dates from the database; "-"
+     * disables it.
+     */
+    private String refillCron = "0 0 * * * *";
+    
+    /**
+     * Number of subscriptions read per refill query.
+     */
+    private int refillChunkSize = 1000;
+    
+    /**
+     * Delay between checks for due subscriptions, in milliseconds.
+     */
+    private long pollIntervalMs = 1000;
+    
+    /**
+     * Maximum number of due subscriptions expired or renewed together.
+     */
+    private int batchSize = 100;
+}
@@ -0,0 +1,18 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the streaming NDJSON exports.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.export")
+public class ExportProperties {
+    
+    /**
+     * Rows fetched from the database per round trip; also how often the response
+     * is flushed.
+     */
+    private int fetchSize = 500;
+}
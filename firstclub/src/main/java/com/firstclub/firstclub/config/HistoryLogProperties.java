@@ -0,0 +1,37 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the append-only subscription history log kept in memory-mapped
+ * segment files.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.history-log")
+public class HistoryLogProperties {
+    
+    /**
+     * Whether subscription changes are recorded and the history endpoints served.
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Directory holding the segment files. Only one process may use it at a time;
+     * a second one runs with the log disabled.
+     */
+    private String directory = "data/history";
+    
+    /**
+     * Size of each segment file. A new segment is started when the current one
+     * is full.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    
+    /**
+     * Maximum number of events waiting to be written. Events recorded while the
+     * queue is full are dropped and counted.
+     */
+    private int queueCapacity = 65536;
+}
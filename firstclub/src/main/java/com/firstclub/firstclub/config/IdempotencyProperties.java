@@ -0,0 +1,39 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the store of results kept per {@code Idempotency-Key} header.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.idempotency")
+public class IdempotencyProperties {
+    
+    /**
+     * Maximum number of completed keys remembered. Beyond it, Caffeine evicts
+     * by its W-TinyLFU policy, which weighs how often and how recently a key was
+     * used. Keys whose first request is still running are not counted and never
+     * evicted.
+     */
+    private long maximumSize = 100_000;
+    
+    /**
+     * How long a key is remembered after its first request completes, and so how
+     * long clients may keep retrying with it.
+     */
+    private Duration ttl = Duration.ofHours(1);
+    
+    /**
+     * Maximum length of a key.
+     */
+    private int maxKeyLength = 255;
+    
+    /**
+     * How long a duplicate waits for the first request with its key to finish
+     * before it is answered with a conflict and asked to retry.
+     */
+    private Duration inFlightTimeout = Duration.ofSeconds(10);
+}
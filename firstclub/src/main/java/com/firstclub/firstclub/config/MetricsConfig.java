@@ -0,0 +1,24 @@
+package com.firstclub.firstclub.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics wiring beyond what Spring Boot auto-configures. Endpoint latency
+ * histograms and the Prometheus endpoint are switched on in
+ * {@code application.properties}; business counters live in
+ * {@link com.firstclub.firstclub.service.MembershipMetrics}.
+ */
+@Configuration
+public class MetricsConfig {
+    
+    /**
+     * Enables {@code @Timed} on service classes.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
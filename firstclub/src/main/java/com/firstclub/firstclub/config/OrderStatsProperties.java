@@ -0,0 +1,27 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for buffering order-stat increments before they are written to the users table.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.order-stats")
+public class OrderStatsProperties {
+    
+    /**
+     * Delay between flushes of buffered increments, in milliseconds.
+     */
+    private long flushIntervalMs = 1000;
+    
+    /**
+     * Number of independently locked stripes the buffer is split into.
+     */
+    private int stripes = 64;
+    
+    /**
+     * Maximum number of UPDATE statements sent in one JDBC batch.
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,58 @@
+package com.firstclub.firstclub.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Routes connections for read-only transactions to the replica and everything
+ * else to the primary.
+ * 
+ * The route is decided when a physical connection is requested, so this must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy};
+ * otherwise the transaction manager fetches the connection before the transaction
+ * is marked read-only. Callers can pin reads to the primary for read-your-writes
+ * with {@link #onPrimary(Supplier)}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+    
+    /**
+     * Connection targets.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+    
+    /**
+     * Run work with every connection it opens routed to the primary. Only
+     * effective if the work's transaction has not fetched a connection yet.
+     * 
+     * @param work the work
+     * @return the work's result
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            } else {
+                PRIMARY_PINNED.set(previous);
+            }
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_PINNED.get() == null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
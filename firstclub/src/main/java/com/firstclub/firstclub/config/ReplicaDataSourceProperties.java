@@ -0,0 +1,40 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the read replica. Routing is enabled only when a URL is set.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.datasource.replica")
+public class ReplicaDataSourceProperties {
+    
+    /**
+     * JDBC URL of the replica; leave unset to send all work to the primary.
+     */
+    private String url;
+    
+    /**
+     * Login user of the replica; defaults to the primary's.
+     */
+    private String username;
+    
+    /**
+     * Login password of the replica; defaults to the primary's.
+     */
+    private String password;
+    
+    /**
+     * Maximum number of connections in the replica pool.
+     */
+    private int maximumPoolSize = 10;
+    
+    /**
+     * How long after writing for a user their reads keep going to the primary,
+     * covering replication lag. Zero disables the fallback.
+     */
+    private Duration stalenessWindow = Duration.ofSeconds(2);
+}
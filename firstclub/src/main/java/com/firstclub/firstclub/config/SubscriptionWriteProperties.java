@@ -0,0 +1,29 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for serializing subscription writes per user.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.subscription-writes")
+public class SubscriptionWriteProperties {
+    
+    /**
+     * Number of locks user IDs are hashed onto.
+     */
+    private int lockStripes = 1024;
+    
+    /**
+     * How long a write waits for its user's lock before giving up.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(5);
+    
+    /**
+     * Attempts per write when it loses an optimistic-lock or uniqueness race.
+     */
+    private int maxAttempts = 3;
+}
@@ -0,0 +1,28 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for re-evaluating tiers after order stats change.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.tier-reevaluation")
+public class TierReevaluationProperties {
+    
+    /**
+     * Maximum number of distinct users waiting for re-evaluation; further events
+     * are dropped until the worker catches up.
+     */
+    private int queueCapacity = 100_000;
+    
+    /**
+     * Maximum number of users evaluated with one query and one set of updates.
+     */
+    private int batchSize = 500;
+    
+    /**
+     * Delay between worker runs, in milliseconds.
+     */
+    private long intervalMs = 500;
+}
@@ -0,0 +1,27 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the bulk tier re-ranking job.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.tier-rerank")
+public class TierRerankProperties {
+    
+    /**
+     * Width of the subscription id range each task loads and updates in one transaction.
+     */
+    private long rangeSize = 5000;
+    
+    /**
+     * Number of ranges processed concurrently; keep well below the connection pool size.
+     */
+    private int parallelism = 4;
+    
+    /**
+     * Pause after each range, in milliseconds, to leave headroom for live traffic.
+     */
+    private long pauseMs = 0;
+}
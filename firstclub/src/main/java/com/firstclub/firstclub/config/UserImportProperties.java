@@ -0,0 +1,22 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for bulk user imports.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.user-import")
+public class UserImportProperties {
+    
+    /**
+     * Rows checked for existing emails and inserted per transaction.
+     */
+    private int chunkSize = 1000;
+    
+    /**
+     * Maximum number of rejected rows listed individually in the response.
+     */
+    private int maxReportedItems = 1000;
+}
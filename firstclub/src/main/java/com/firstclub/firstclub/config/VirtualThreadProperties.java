@@ -0,0 +1,29 @@
+package com.firstclub.firstclub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Diagnostics for the virtual-thread execution mode.
+ */
+@Data
+@ConfigurationProperties(prefix = "firstclub.virtual-threads")
+public class VirtualThreadProperties {
+    
+    /**
+     * Whether pinned virtual threads are reported while virtual threads are enabled.
+     */
+    private boolean pinningMonitorEnabled = true;
+    
+    /**
+     * Minimum time a virtual thread must stay pinned to its carrier to be reported.
+     */
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+    
+    /**
+     * Number of stack frames logged for each pinning event.
+     */
+    private int stackDepth = 8;
+}
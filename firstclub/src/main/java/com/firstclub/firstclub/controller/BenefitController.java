@@ -1,13 +1,16 @@
 package com.firstclub.firstclub.controller;
 
 import com.firstclub.firstclub.dto.ApiResponse;
+import com.firstclub.firstclub.dto.CursorPage;
 import com.firstclub.firstclub.dto.BenefitDTO;
 import com.firstclub.firstclub.service.BenefitService;
+import com.firstclub.firstclub.service.CatalogVersion;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,6 +23,7 @@ import java.util.List;
 public class BenefitController {
     
     private final BenefitService benefitService;
+    private final CatalogVersion catalogVersion;
     
     /**
      * Create a new benefit.
@@ -57,14 +61,23 @@ public class BenefitController {
     }
     
     /**
-     * Get all benefits.
+     * Get all benefits, one page at a time.
      * 
-     * @return list of all benefits
+     * @param cursor continuation token from the previous page
+     * @param limit maximum number of items to return
+     * @return page of benefits
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<BenefitDTO>>> getAllBenefits() {
-        List<BenefitDTO> benefits = benefitService.getAllBenefits();
-        return ResponseEntity.ok(ApiResponse.success(benefits));
+    public ResponseEntity<ApiResponse<CursorPage<BenefitDTO>>> getAllBenefits(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<BenefitDTO> benefits = benefitService.getAllBenefits(cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success(benefits));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
     }
     
     /**
@@ -85,16 +98,18 @@ public class BenefitController {
     }
     
     /**
-     * Get all active benefits for a tier.
+     * Get all active benefits for a tier, or 304 if the client's copy is current.
      * 
      * @param tierId the tier ID
+     * @param request the request, carrying any conditional headers
      * @return list of active benefits
      */
     @GetMapping("/tier/{tierId}/active")
-    public ResponseEntity<ApiResponse<List<BenefitDTO>>> getActiveBenefitsByTier(@PathVariable Long tierId) {
+    public ResponseEntity<ApiResponse<List<BenefitDTO>>> getActiveBenefitsByTier(@PathVariable Long tierId,
+                                                                                WebRequest request) {
         try {
-            List<BenefitDTO> benefits = benefitService.getActiveBenefitsByTier(tierId);
-            return ResponseEntity.ok(ApiResponse.success(benefits));
+            return CatalogResponses.conditional(request, catalogVersion,
+                    () -> benefitService.getActiveBenefitsByTier(tierId));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error(e.getMessage()));
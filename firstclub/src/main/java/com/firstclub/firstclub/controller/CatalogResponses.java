@@ -0,0 +1,81 @@
+package com.firstclub.firstclub.controller;
+
+import com.firstclub.firstclub.dto.ApiResponse;
+import com.firstclub.firstclub.service.CatalogPayloadCache;
+import com.firstclub.firstclub.service.CatalogVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET handling for the plan, tier and benefit catalog endpoints.
+ */
+final class CatalogResponses {
+    
+    private CatalogResponses() {
+    }
+    
+    /**
+     * Answer with {@code 304 Not Modified} if the client's {@code If-None-Match} or
+     * {@code If-Modified-Since} matches the current catalog version, without
+     * running the read. Otherwise run it and return the result with the version's
+     * ETag and {@code Last-Modified}.
+     * 
+     * @param request the current request; the validators are set on its response
+     * @param catalogVersion the catalog version
+     * @param read the catalog read
+     * @return the response, or null once a 304 has been prepared
+     */
+    static <T> ResponseEntity<ApiResponse<T>> conditional(WebRequest request, CatalogVersion catalogVersion,
+                                                          Supplier<T> read) {
+        if (notModified(request, catalogVersion, false)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success(read.get()));
+    }
+    
+    /**
+     * Like {@link #conditional(WebRequest, CatalogVersion, Supplier)}, but writes a
+     * pre-rendered payload, gzipped if the client accepts it. The gzipped body has
+     * its own ETag, as it is a different representation.
+     * 
+     * @param request the current request
+     * @param acceptEncoding the request's Accept-Encoding header, or null
+     * @param catalogVersion the catalog version
+     * @param payload the cached payload
+     * @return the response, or null once a 304 has been prepared
+     */
+    static ResponseEntity<byte[]> rendered(WebRequest request, String acceptEncoding,
+                                           CatalogVersion catalogVersion,
+                                           Supplier<CatalogPayloadCache.Payload> payload) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        if (notModified(request, catalogVersion, gzip)) {
+            return null;
+        }
+        CatalogPayloadCache.Payload rendered = payload.get();
+        CatalogVersion.Stamp stamp = rendered.getStamp();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(gzip ? stamp.getGzipETag() : stamp.getETag())
+                .lastModified(stamp.getLastModified())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(rendered.getGzip());
+        }
+        return response.body(rendered.getJson());
+    }
+    
+    private static boolean notModified(WebRequest request, CatalogVersion catalogVersion, boolean gzip) {
+        CatalogVersion.Stamp stamp = catalogVersion.current();
+        return request.checkNotModified(gzip ? stamp.getGzipETag() : stamp.getETag(), stamp.getLastModified());
+    }
+}
@@ -0,0 +1,32 @@
+package com.firstclub.firstclub.controller;
+
+import com.firstclub.firstclub.dto.ApiResponse;
+import com.firstclub.firstclub.dto.EntitlementBatchRequest;
+import com.firstclub.firstclub.dto.MemberEntitlementDTO;
+import com.firstclub.firstclub.service.EntitlementService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/entitlements")
+@RequiredArgsConstructor
+public class EntitlementController {
+    
+    private final EntitlementService entitlementService;
+    
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<Map<Long, MemberEntitlementDTO>>> getEntitlements(
+            @Valid @RequestBody EntitlementBatchRequest request) {
+        try {
+            Map<Long, MemberEntitlementDTO> entitlements = entitlementService.getEntitlements(request.getUserIds());
+            return ResponseEntity.ok(ApiResponse.success(entitlements));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
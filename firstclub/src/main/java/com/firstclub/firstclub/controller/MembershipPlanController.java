@@ -1,13 +1,18 @@
 package com.firstclub.firstclub.controller;
 
 import com.firstclub.firstclub.dto.ApiResponse;
+import com.firstclub.firstclub.dto.CursorPage;
 import com.firstclub.firstclub.dto.MembershipPlanDTO;
+import com.firstclub.firstclub.service.CatalogPayloadCache;
+import com.firstclub.firstclub.service.CatalogVersion;
 import com.firstclub.firstclub.service.MembershipPlanService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,6 +25,8 @@ import java.util.List;
 public class MembershipPlanController {
     
     private final MembershipPlanService planService;
+    private final CatalogVersion catalogVersion;
+    private final CatalogPayloadCache payloadCache;
     
     /**
      * Create a new membership plan.
@@ -57,25 +64,37 @@ public class MembershipPlanController {
     }
     
     /**
-     * Get all plans.
+     * Get all plans, one page at a time.
      * 
-     * @return list of all plans
+     * @param cursor continuation token from the previous page
+     * @param limit maximum number of items to return
+     * @return page of plans
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<MembershipPlanDTO>>> getAllPlans() {
-        List<MembershipPlanDTO> plans = planService.getAllPlans();
-        return ResponseEntity.ok(ApiResponse.success(plans));
+    public ResponseEntity<ApiResponse<CursorPage<MembershipPlanDTO>>> getAllPlans(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<MembershipPlanDTO> plans = planService.getAllPlans(cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success(plans));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
     }
     
     /**
-     * Get all active plans.
+     * Get all active plans, or 304 if the client's copy is current.
      * 
-     * @return list of active plans
+     * @param request the request, carrying any conditional headers
+     * @param acceptEncoding the Accept-Encoding header, if any
+     * @return list of active plans, as pre-rendered JSON
      */
     @GetMapping("/active")
-    public ResponseEntity<ApiResponse<List<MembershipPlanDTO>>> getActivePlans() {
-        List<MembershipPlanDTO> plans = planService.getActivePlans();
-        return ResponseEntity.ok(ApiResponse.success(plans));
+    public ResponseEntity<byte[]> getActivePlans(
+            WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return CatalogResponses.rendered(request, acceptEncoding, catalogVersion, payloadCache::activePlans);
     }
     
     /**
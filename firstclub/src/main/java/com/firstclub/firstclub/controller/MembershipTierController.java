@@ -1,13 +1,20 @@
 package com.firstclub.firstclub.controller;
 
 import com.firstclub.firstclub.dto.ApiResponse;
+import com.firstclub.firstclub.dto.CursorPage;
 import com.firstclub.firstclub.dto.MembershipTierDTO;
+import com.firstclub.firstclub.dto.TierRerankStatusDTO;
+import com.firstclub.firstclub.service.CatalogPayloadCache;
+import com.firstclub.firstclub.service.CatalogVersion;
 import com.firstclub.firstclub.service.MembershipTierService;
+import com.firstclub.firstclub.service.TierRerankJob;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,6 +27,9 @@ import java.util.List;
 public class MembershipTierController {
     
     private final MembershipTierService tierService;
+    private final TierRerankJob tierRerankJob;
+    private final CatalogVersion catalogVersion;
+    private final CatalogPayloadCache payloadCache;
     
     /**
      * Create a new membership tier.
@@ -39,6 +49,49 @@ public class MembershipTierController {
         }
     }
     
+    /**
+     * Start re-ranking every active subscription against the current tier thresholds.
+     * 
+     * @return status of the started run
+     */
+    @PostMapping("/rerank")
+    public ResponseEntity<ApiResponse<TierRerankStatusDTO>> startRerank() {
+        try {
+            TierRerankStatusDTO status = tierRerankJob.start();
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Tier re-ranking started", status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get the progress of the current or last re-ranking run.
+     * 
+     * @return run status
+     */
+    @GetMapping("/rerank")
+    public ResponseEntity<ApiResponse<TierRerankStatusDTO>> getRerankStatus() {
+        return ResponseEntity.ok(ApiResponse.success(tierRerankJob.getStatus()));
+    }
+    
+    /**
+     * Stop the running re-ranking job after the ranges in progress.
+     * 
+     * @return status of the run
+     */
+    @PostMapping("/rerank/cancel")
+    public ResponseEntity<ApiResponse<TierRerankStatusDTO>> cancelRerank() {
+        try {
+            TierRerankStatusDTO status = tierRerankJob.cancel();
+            return ResponseEntity.ok(ApiResponse.success("Tier re-ranking cancelled", status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     /**
      * Get tier by ID.
      * 
@@ -57,25 +110,37 @@ public class MembershipTierController {
     }
     
     /**
-     * Get all tiers.
+     * Get all tiers, one page at a time.
      * 
-     * @return list of all tiers
+     * @param cursor continuation token from the previous page
+     * @param limit maximum number of items to return
+     * @return page of tiers
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<MembershipTierDTO>>> getAllTiers() {
-        List<MembershipTierDTO> tiers = tierService.getAllTiers();
-        return ResponseEntity.ok(ApiResponse.success(tiers));
+    public ResponseEntity<ApiResponse<CursorPage<MembershipTierDTO>>> getAllTiers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<MembershipTierDTO> tiers = tierService.getAllTiers(cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success(tiers));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
     }
     
     /**
-     * Get all active tiers.
+     * Get all active tiers, or 304 if the client's copy is current.
      * 
-     * @return list of active tiers
+     * @param request the request, carrying any conditional headers
+     * @param acceptEncoding the Accept-Encoding header, if any
+     * @return list of active tiers, as pre-rendered JSON
      */
     @GetMapping("/active")
-    public ResponseEntity<ApiResponse<List<MembershipTierDTO>>> getActiveTiers() {
-        List<MembershipTierDTO> tiers = tierService.getActiveTiers();
-        return ResponseEntity.ok(ApiResponse.success(tiers));
+    public ResponseEntity<byte[]> getActiveTiers(
+            WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return CatalogResponses.rendered(request, acceptEncoding, catalogVersion, payloadCache::activeTiers);
     }
     
     /**
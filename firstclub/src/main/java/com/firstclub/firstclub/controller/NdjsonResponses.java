@@ -0,0 +1,50 @@
+package com.firstclub.firstclub.controller;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds streaming NDJSON responses, gzip-compressed when the client accepts it.
+ */
+final class NdjsonResponses {
+    
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    
+    private NdjsonResponses() {
+    }
+    
+    /**
+     * Stream the output of a writer as an NDJSON attachment.
+     * 
+     * @param filename attachment file name, without extension
+     * @param acceptEncoding the request's Accept-Encoding header, or null
+     * @param writer writes the rows
+     * @return the streaming response
+     */
+    static ResponseEntity<StreamingResponseBody> stream(String filename, String acceptEncoding,
+                                                        StreamingResponseBody writer) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename + ".ndjson").build().toString());
+        if (!gzip) {
+            return response.body(writer);
+        }
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                    writer.writeTo(compressed);
+                    compressed.finish();
+                });
+    }
+}
@@ -1,16 +1,28 @@
 package com.firstclub.firstclub.controller;
 
 import com.firstclub.firstclub.dto.ApiResponse;
+import com.firstclub.firstclub.dto.CacheStatsDTO;
+import com.firstclub.firstclub.dto.CursorPage;
+import com.firstclub.firstclub.dto.SubscriptionBatchResult;
 import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
 import com.firstclub.firstclub.dto.SubscriptionRequest;
 import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.service.ExportService;
+import com.firstclub.firstclub.service.IdempotencyStore;
+import com.firstclub.firstclub.service.SubscriptionHistoryLog;
 import com.firstclub.firstclub.service.SubscriptionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,21 +33,56 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SubscriptionController {
     
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    
     private final SubscriptionService subscriptionService;
+    private final ExportService exportService;
+    private final SubscriptionHistoryLog historyLog;
+    private final IdempotencyStore idempotencyStore;
     
     /**
-     * Create a new subscription.
+     * Create a new subscription. A retry carrying the same idempotency key gets
+     * the original subscription back instead of creating another, or a conflict
+     * if the original is still running.
      * 
+     * @param idempotencyKey optional client key identifying this request
      * @param request the subscription request
      * @return created subscription
      */
     @PostMapping
     public ResponseEntity<ApiResponse<SubscriptionDTO>> createSubscription(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody SubscriptionRequest request) {
         try {
-            SubscriptionDTO subscription = subscriptionService.createSubscription(request);
+            SubscriptionDTO subscription = idempotencyStore.execute(idempotencyKey,
+                    "POST /api/subscriptions " + request,
+                    () -> subscriptionService.createSubscription(request));
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Subscription created successfully", subscription));
+        } catch (IdempotencyStore.KeyReusedException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IdempotencyStore.InProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Create subscriptions for many users in one call.
+     * 
+     * @param requests the subscription requests
+     * @return per-request outcomes
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<SubscriptionBatchResult>> createSubscriptions(
+            @RequestBody List<SubscriptionRequest> requests) {
+        try {
+            SubscriptionBatchResult result = subscriptionService.createSubscriptions(requests);
+            return ResponseEntity.ok(ApiResponse.success("Batch processed", result));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error(e.getMessage()));
@@ -60,26 +107,82 @@ public class SubscriptionController {
     }
     
     /**
-     * Get all subscriptions.
+     * Get the recorded changes to a subscription.
+     * 
+     * @param id the subscription ID
+     * @param limit maximum number of most recent events to return
+     * @return events, oldest first
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<ApiResponse<List<SubscriptionHistoryDTO>>> getSubscriptionHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<SubscriptionHistoryDTO> history = historyLog.getSubscriptionHistory(id, limit);
+            return ResponseEntity.ok(ApiResponse.success(history));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get all subscriptions, one page at a time.
      * 
-     * @return list of all subscriptions
+     * @param cursor continuation token from the previous page
+     * @param limit maximum number of items to return
+     * @return page of subscriptions
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<SubscriptionDTO>>> getAllSubscriptions() {
-        List<SubscriptionDTO> subscriptions = subscriptionService.getAllSubscriptions();
-        return ResponseEntity.ok(ApiResponse.success(subscriptions));
+    public ResponseEntity<ApiResponse<CursorPage<SubscriptionDTO>>> getAllSubscriptions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<SubscriptionDTO> subscriptions = subscriptionService.getAllSubscriptions(cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success(subscriptions));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Stream all matching subscriptions as NDJSON, one object per line, ordered by
+     * id. The response is gzip-compressed when the client accepts it.
+     * 
+     * @param status only subscriptions in this status
+     * @param from only subscriptions created at or after this time
+     * @param to only subscriptions created before this time
+     * @param acceptEncoding the Accept-Encoding header
+     * @return streaming NDJSON response
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSubscriptions(
+            @RequestParam(required = false) Subscription.SubscriptionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Rejected before streaming starts; GlobalExceptionHandler answers with 400
+        exportService.validateRange(from, to);
+        return NdjsonResponses.stream("subscriptions", acceptEncoding,
+                out -> exportService.exportSubscriptions(status, from, to, out));
     }
     
     /**
-     * Get all subscriptions for a user.
+     * Get subscriptions for a user, one page at a time.
      * 
      * @param userId the user ID
-     * @return list of user subscriptions
+     * @param cursor continuation token from the previous page
+     * @param limit maximum number of items to return
+     * @return page of user subscriptions
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<SubscriptionDTO>>> getUserSubscriptions(@PathVariable Long userId) {
+    public ResponseEntity<ApiResponse<CursorPage<SubscriptionDTO>>> getUserSubscriptions(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<SubscriptionDTO> subscriptions = subscriptionService.getUserSubscriptions(userId);
+            CursorPage<SubscriptionDTO> subscriptions = subscriptionService.getUserSubscriptions(userId, cursor, limit);
             return ResponseEntity.ok(ApiResponse.success(subscriptions));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -104,6 +207,37 @@ public class SubscriptionController {
         }
     }
     
+    /**
+     * Get the recorded changes to all of a user's subscriptions.
+     * 
+     * @param userId the user ID
+     * @param limit maximum number of most recent events to return
+     * @return events, oldest first
+     */
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<ApiResponse<List<SubscriptionHistoryDTO>>> getUserHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<SubscriptionHistoryDTO> history = historyLog.getUserHistory(userId, limit);
+            return ResponseEntity.ok(ApiResponse.success(history));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get hit, miss and eviction statistics for the active subscription cache.
+     * 
+     * @return cache statistics
+     */
+    @GetMapping("/active-cache/stats")
+    public ResponseEntity<ApiResponse<CacheStatsDTO>> getActiveSubscriptionCacheStats() {
+        CacheStatsDTO stats = subscriptionService.getActiveSubscriptionCacheStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
     /**
      * Upgrade subscription tier.
      * 
@@ -159,16 +293,29 @@ public class SubscriptionController {
     }
     
     /**
-     * Renew a subscription.
+     * Renew a subscription. A retry carrying the same idempotency key gets the
+     * original successor back instead of renewing again, or a conflict if the
+     * original is still running.
      * 
      * @param id the subscription ID
+     * @param idempotencyKey optional client key identifying this request
      * @return renewed subscription
      */
     @PostMapping("/{id}/renew")
-    public ResponseEntity<ApiResponse<SubscriptionDTO>> renewSubscription(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<SubscriptionDTO>> renewSubscription(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         try {
-            SubscriptionDTO subscription = subscriptionService.renewSubscription(id);
+            SubscriptionDTO subscription = idempotencyStore.execute(idempotencyKey,
+                    "POST /api/subscriptions/" + id + "/renew",
+                    () -> subscriptionService.renewSubscription(id));
             return ResponseEntity.ok(ApiResponse.success("Subscription renewed successfully", subscription));
+        } catch (IdempotencyStore.KeyReusedException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IdempotencyStore.InProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error(e.getMessage()));
@@ -1,22 +1,39 @@
 package com.firstclub.firstclub.controller;
 
 import com.firstclub.firstclub.dto.ApiResponse;
+import com.firstclub.firstclub.dto.CursorPage;
+import com.firstclub.firstclub.dto.EntitlementDTO;
 import com.firstclub.firstclub.dto.UserDTO;
+import com.firstclub.firstclub.dto.UserImportResult;
+import com.firstclub.firstclub.service.EntitlementService;
+import com.firstclub.firstclub.service.ExportService;
+import com.firstclub.firstclub.service.UserImportService;
 import com.firstclub.firstclub.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
     
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    
     private final UserService userService;
+    private final EntitlementService entitlementService;
+    private final ExportService exportService;
+    private final UserImportService userImportService;
     
     @PostMapping
     public ResponseEntity<ApiResponse<UserDTO>> createUser(@Valid @RequestBody UserDTO userDTO) {
@@ -41,6 +58,17 @@ public class UserController {
         }
     }
     
+    @GetMapping("/{id}/entitlements")
+    public ResponseEntity<ApiResponse<EntitlementDTO>> getUserEntitlements(@PathVariable Long id) {
+        try {
+            EntitlementDTO entitlements = entitlementService.getUserEntitlements(id);
+            return ResponseEntity.ok(ApiResponse.success(entitlements));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/email/{email}")
     public ResponseEntity<ApiResponse<UserDTO>> getUserByEmail(@PathVariable String email) {
         try {
@@ -53,9 +81,45 @@ public class UserController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(ApiResponse.success(users));
+    public ResponseEntity<ApiResponse<CursorPage<UserDTO>>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<UserDTO> users = userService.getAllUsers(cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success(users));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ApiResponse<UserImportResult>> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) {
+        try {
+            UserImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                    ? UserImportService.Format.CSV
+                    : UserImportService.Format.NDJSON;
+            InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+            UserImportResult result = userImportService.importUsers(in, format);
+            return ResponseEntity.ok(ApiResponse.success("Import processed", result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Rejected before streaming starts; GlobalExceptionHandler answers with 400
+        exportService.validateRange(from, to);
+        return NdjsonResponses.stream("users", acceptEncoding,
+                out -> exportService.exportUsers(from, to, out));
     }
     
     @PutMapping("/{id}")
@@ -74,9 +138,10 @@ public class UserController {
     @PatchMapping("/{id}/order-stats")
     public ResponseEntity<ApiResponse<String>> updateOrderStats(
             @PathVariable Long id,
-            @RequestParam Long orderValue) {
+            @RequestParam Long orderValue,
+            @RequestParam(defaultValue = "false") boolean sync) {
         try {
-            userService.updateUserOrderStats(id, orderValue);
+            userService.updateUserOrderStats(id, orderValue, sync);
             return ResponseEntity.ok(ApiResponse.success("Order stats updated successfully", null));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -0,0 +1,24 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cache statistics DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    
+    private long size;
+    
+    private long hitCount;
+    
+    private long missCount;
+    
+    private double hitRate;
+    
+    private long evictionCount;
+}
@@ -0,0 +1,91 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset-paginated slice of a list endpoint
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    public static final int DEFAULT_LIMIT = 50;
+    
+    public static final int MAX_LIMIT = 500;
+    
+    private static final String CURSOR_PREFIX = "id:";
+    
+    private List<T> items;
+    
+    private String nextCursor;
+    
+    private boolean hasMore;
+    
+    /**
+     * Build a page from rows fetched with {@code limit + 1}; the extra row only
+     * signals that another page exists and is not returned.
+     * 
+     * @param rows rows ordered by id, at most {@code limit + 1}
+     * @param limit the page size
+     * @param idOf extracts the keyset id from a row
+     * @param mapper converts a row to its DTO
+     * @return the page
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int limit, Function<E, Long> idOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? encodeCursor(idOf.apply(pageRows.get(pageRows.size() - 1))) : null;
+        List<T> items = pageRows.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+    
+    /**
+     * Clamp a requested page size to the allowed range.
+     * 
+     * @param limit the requested size, may be null
+     * @return the effective page size
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+    
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a continuation token into the last id of the previous page.
+     * 
+     * @param cursor the token, or null for the first page
+     * @return the id to continue after
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.firstclub.firstclub.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bulk entitlement lookup request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntitlementBatchRequest {
+    
+    @NotEmpty(message = "User IDs are required")
+    private List<Long> userIds;
+}
@@ -0,0 +1,44 @@
+package com.firstclub.firstclub.dto;
+
+import com.firstclub.firstclub.model.MembershipTier;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything a member is entitled to through their active subscription
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntitlementDTO {
+    
+    private Long userId;
+    
+    private Long subscriptionId;
+    
+    private Long planId;
+    
+    private String planName;
+    
+    private LocalDateTime endDate;
+    
+    private Long tierId;
+    
+    private String tierName;
+    
+    private MembershipTier.TierLevel tierLevel;
+    
+    private Long discountPercentage;
+    
+    private Boolean freeDelivery;
+    
+    private Boolean prioritySupport;
+    
+    private Boolean exclusiveDeals;
+    
+    private List<BenefitDTO> benefits;
+}
@@ -0,0 +1,28 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a subscription that is due to expire
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiryCandidate {
+    
+    private Long id;
+    
+    private Long userId;
+    
+    private LocalDateTime endDate;
+    
+    private Boolean autoRenew;
+    
+    private String planName;
+    
+    private String tierName;
+}
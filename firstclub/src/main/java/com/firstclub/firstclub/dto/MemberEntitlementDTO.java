@@ -0,0 +1,39 @@
+package com.firstclub.firstclub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.firstclub.firstclub.model.MembershipTier;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact entitlement entry for bulk lookups; non-members only carry {@code member=false}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MemberEntitlementDTO {
+    
+    private boolean member;
+    
+    private MembershipTier.TierLevel tierLevel;
+    
+    private Long tierId;
+    
+    private LocalDateTime endDate;
+    
+    private Long discountPercentage;
+    
+    private Boolean freeDelivery;
+    
+    private Boolean prioritySupport;
+    
+    private Boolean exclusiveDeals;
+    
+    public static MemberEntitlementDTO nonMember() {
+        return new MemberEntitlementDTO(false, null, null, null, null, null, null, null);
+    }
+}
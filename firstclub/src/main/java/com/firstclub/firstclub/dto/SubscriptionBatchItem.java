@@ -0,0 +1,26 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one request in a batch subscription call
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionBatchItem {
+    
+    private int index;
+    
+    private Long userId;
+    
+    private Long planId;
+    
+    private boolean success;
+    
+    private Long subscriptionId;
+    
+    private String message;
+}
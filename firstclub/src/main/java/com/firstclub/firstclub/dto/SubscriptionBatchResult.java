@@ -0,0 +1,24 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Batch subscription response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionBatchResult {
+    
+    private int requested;
+    
+    private int created;
+    
+    private int failed;
+    
+    private List<SubscriptionBatchItem> items;
+}
@@ -0,0 +1,41 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One recorded change to a subscription
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionHistoryDTO {
+    
+    /**
+     * Kinds of change. Stored by position in the history log, so new values may
+     * only be added at the end.
+     */
+    public enum Event {
+        CREATED,
+        UPGRADED,
+        DOWNGRADED,
+        CANCELLED,
+        RENEWED,
+        EXPIRED
+    }
+    
+    private Event event;
+    
+    private Long subscriptionId;
+    
+    private Long userId;
+    
+    private Long tierId;
+    
+    private LocalDateTime endDate;
+    
+    private LocalDateTime recordedAt;
+}
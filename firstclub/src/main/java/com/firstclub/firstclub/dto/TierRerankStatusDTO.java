@@ -0,0 +1,42 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a tier re-ranking run
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TierRerankStatusDTO {
+    
+    private State state;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime finishedAt;
+    
+    private long totalRanges;
+    
+    private long completedRanges;
+    
+    private long failedRanges;
+    
+    private long scanned;
+    
+    private long changed;
+    
+    private double percentComplete;
+    
+    public enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+}
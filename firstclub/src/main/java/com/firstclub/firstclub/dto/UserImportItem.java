@@ -0,0 +1,27 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one row of a bulk user import that was not imported
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportItem {
+    
+    public enum Outcome {
+        DUPLICATE,
+        INVALID
+    }
+    
+    private long line;
+    
+    private String email;
+    
+    private Outcome outcome;
+    
+    private String message;
+}
@@ -0,0 +1,32 @@
+package com.firstclub.firstclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bulk user import response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResult {
+    
+    private long rows;
+    
+    private long imported;
+    
+    private long duplicates;
+    
+    private long invalid;
+    
+    /**
+     * Rows that were not imported, in file order, up to the configured limit.
+     * Imported rows are only counted.
+     */
+    private List<UserImportItem> items;
+    
+    private boolean itemsTruncated;
+}
@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
  * Benefit entity for tier perks
  */
 @Entity
-@Table(name = "benefits")
+@Table(name = "benefits", indexes = {
+        @Index(name = "idx_benefits_tier_active", columnList = "tier_id, active"),
+        @Index(name = "idx_benefits_active_tier", columnList = "active, tier_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
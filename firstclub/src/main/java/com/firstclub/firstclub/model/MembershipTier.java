@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
  * Tier entity for membership levels
  */
 @Entity
-@Table(name = "membership_tiers")
+@Table(name = "membership_tiers", indexes = {
+        @Index(name = "idx_membership_tiers_tier_level", columnList = "tier_level"),
+        @Index(name = "idx_membership_tiers_eligibility", columnList = "active, min_order_count, min_order_value")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
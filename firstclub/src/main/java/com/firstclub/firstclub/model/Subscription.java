@@ -11,14 +11,18 @@ import java.time.LocalDateTime;
  * Subscription entity
  */
 @Entity
-@Table(name = "subscriptions")
+@Table(name = "subscriptions", indexes = {
+        @Index(name = "idx_subscriptions_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_subscriptions_status_end_date", columnList = "status, end_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Subscription {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscriptions_seq")
+    @SequenceGenerator(name = "subscriptions_seq", sequenceName = "subscriptions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,6 +50,17 @@ public class Subscription {
     @Column(name = "auto_renew")
     private Boolean autoRenew = false;
     
+    /**
+     * Copy of the user ID while the subscription is ACTIVE, null otherwise. A unique
+     * constraint on it lets the database enforce one active subscription per user.
+     */
+    @Column(name = "active_user_id", unique = true)
+    private Long activeUserId;
+    
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -56,11 +71,17 @@ public class Subscription {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        syncActiveUserId();
     }
     
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        syncActiveUserId();
+    }
+    
+    private void syncActiveUserId() {
+        activeUserId = status == SubscriptionStatus.ACTIVE && user != null ? user.getId() : null;
     }
     
     public enum SubscriptionStatus {
@@ -1,15 +1,47 @@
 package com.firstclub.firstclub.repository;
 
+import com.firstclub.firstclub.dto.BenefitDTO;
 import com.firstclub.firstclub.model.Benefit;
 import com.firstclub.firstclub.model.MembershipTier;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BenefitRepository extends JpaRepository<Benefit, Long> {
+    String SELECT_DTO = "SELECT new com.firstclub.firstclub.dto.BenefitDTO(" +
+            "b.id, t.id, t.name, b.name, b.description, b.benefitType, b.value, b.active) " +
+            "FROM Benefit b JOIN b.tier t ";
+    
     List<Benefit> findByTier(MembershipTier tier);
-    List<Benefit> findByTierId(Long tierId);
-    List<Benefit> findByTierIdAndActive(Long tierId, Boolean active);
+    
+    @Query("SELECT b FROM Benefit b WHERE b.tier.id = :tierId")
+    List<Benefit> findByTierId(@Param("tierId") Long tierId);
+    
+    @Query("SELECT b FROM Benefit b WHERE b.tier.id = :tierId AND b.active = :active")
+    List<Benefit> findByTierIdAndActive(@Param("tierId") Long tierId, @Param("active") Boolean active);
+    
+    @EntityGraph(attributePaths = "tier")
+    Optional<Benefit> findWithTierById(Long id);
+    
+    @Query(SELECT_DTO + "WHERE b.id = :id")
+    Optional<BenefitDTO> findDtoById(@Param("id") Long id);
+    
+    @Query(SELECT_DTO + "WHERE t.id = :tierId ORDER BY b.id")
+    List<BenefitDTO> findDtoByTierId(@Param("tierId") Long tierId);
+    
+    @Query(SELECT_DTO + "WHERE t.id = :tierId AND b.active = :active ORDER BY b.id")
+    List<BenefitDTO> findDtoByTierIdAndActive(@Param("tierId") Long tierId, @Param("active") Boolean active);
+    
+    @Query(SELECT_DTO + "WHERE b.active = :active ORDER BY t.id, b.id")
+    List<BenefitDTO> findDtoByActive(@Param("active") Boolean active);
+    
+    @Query(SELECT_DTO + "WHERE b.id > :afterId ORDER BY b.id")
+    List<BenefitDTO> findDtoPage(@Param("afterId") Long afterId, Limit limit);
 }
@@ -1,6 +1,7 @@
 package com.firstclub.firstclub.repository;
 
 import com.firstclub.firstclub.model.MembershipPlan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,4 +13,5 @@ public interface MembershipPlanRepository extends JpaRepository<MembershipPlan,
     List<MembershipPlan> findByActiveTrue();
     Optional<MembershipPlan> findByPlanType(MembershipPlan.PlanType planType);
     Optional<MembershipPlan> findByName(String name);
+    List<MembershipPlan> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -1,6 +1,7 @@
 package com.firstclub.firstclub.repository;
 
 import com.firstclub.firstclub.model.MembershipTier;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +14,7 @@ import java.util.Optional;
 public interface MembershipTierRepository extends JpaRepository<MembershipTier, Long> {
     List<MembershipTier> findByActiveTrue();
     Optional<MembershipTier> findByTierLevel(MembershipTier.TierLevel tierLevel);
+    List<MembershipTier> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
     
     @Query("SELECT t FROM MembershipTier t WHERE t.active = true " +
            "AND (t.minOrderCount IS NULL OR t.minOrderCount <= :orderCount) " +
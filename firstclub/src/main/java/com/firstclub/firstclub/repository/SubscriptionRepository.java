@@ -1,24 +1,93 @@
 package com.firstclub.firstclub.repository;
 
+import com.firstclub.firstclub.dto.ExpiryCandidate;
+import com.firstclub.firstclub.dto.SubscriptionDTO;
 import com.firstclub.firstclub.model.Subscription;
 import com.firstclub.firstclub.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
+    String SELECT_DTO = "SELECT new com.firstclub.firstclub.dto.SubscriptionDTO(" +
+            "s.id, u.id, u.name, u.email, p.id, p.name, t.id, t.name, " +
+            "s.status, s.startDate, s.endDate, s.autoRenew) " +
+            "FROM Subscription s JOIN s.user u JOIN s.plan p JOIN s.tier t ";
+    
     List<Subscription> findByUser(User user);
-    List<Subscription> findByUserId(Long userId);
+    
+    @Query("SELECT s FROM Subscription s WHERE s.user.id = :userId")
+    List<Subscription> findByUserId(@Param("userId") Long userId);
+    
     Optional<Subscription> findByUserIdAndStatus(Long userId, Subscription.SubscriptionStatus status);
+    
+    @Query("SELECT s.user.id FROM Subscription s WHERE s.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+    
+    @Query("SELECT s.user.id FROM Subscription s WHERE s.user.id IN :userIds AND s.status = :status")
+    List<Long> findUserIdsWithStatus(@Param("userIds") Collection<Long> userIds,
+                                     @Param("status") Subscription.SubscriptionStatus status);
+    
     List<Subscription> findByStatus(Subscription.SubscriptionStatus status);
     
-    @Query("SELECT s FROM Subscription s WHERE s.status = :status AND s.endDate <= :endDate")
-    List<Subscription> findExpiringSoon(@Param("status") Subscription.SubscriptionStatus status,
-                                       @Param("endDate") LocalDateTime endDate);
+    @EntityGraph(attributePaths = {"user", "plan", "tier"})
+    Optional<Subscription> findWithAssociationsById(Long id);
+    
+    @EntityGraph(attributePaths = {"user", "plan", "tier"})
+    List<Subscription> findWithAssociationsByIdInAndStatus(Collection<Long> ids, Subscription.SubscriptionStatus status);
+    
+    @Query(SELECT_DTO + "WHERE s.id = :id")
+    Optional<SubscriptionDTO> findDtoById(@Param("id") Long id);
+    
+    @Transactional(readOnly = true)
+    @Query(SELECT_DTO + "WHERE u.id = :userId AND s.status = :status")
+    Optional<SubscriptionDTO> findDtoByUserIdAndStatus(@Param("userId") Long userId,
+                                                       @Param("status") Subscription.SubscriptionStatus status);
+    
+    @Query(SELECT_DTO + "WHERE s.id > :afterId ORDER BY s.id")
+    List<SubscriptionDTO> findDtoPage(@Param("afterId") Long afterId, Limit limit);
+    
+    @Query(SELECT_DTO + "WHERE u.id = :userId AND s.id > :afterId ORDER BY s.id")
+    List<SubscriptionDTO> findDtoPageByUserId(@Param("userId") Long userId,
+                                              @Param("afterId") Long afterId,
+                                              Limit limit);
+    
+    @Query("SELECT new com.firstclub.firstclub.dto.ExpiryCandidate(" +
+           "s.id, s.user.id, s.endDate, s.autoRenew, p.name, t.name) " +
+           "FROM Subscription s JOIN s.plan p JOIN s.tier t " +
+           "WHERE s.status = :status AND s.endDate <= :endDate " +
+           "AND (s.endDate > :afterEndDate OR (s.endDate = :afterEndDate AND s.id > :afterId)) " +
+           "ORDER BY s.endDate, s.id")
+    List<ExpiryCandidate> findExpiringSoon(@Param("status") Subscription.SubscriptionStatus status,
+                                           @Param("endDate") LocalDateTime endDate,
+                                           @Param("afterEndDate") LocalDateTime afterEndDate,
+                                           @Param("afterId") Long afterId,
+                                           Limit limit);
+    
+    @Query("SELECT new com.firstclub.firstclub.dto.ExpiryCandidate(" +
+           "s.id, s.user.id, s.endDate, s.autoRenew, p.name, t.name) " +
+           "FROM Subscription s JOIN s.plan p JOIN s.tier t " +
+           "WHERE s.id IN :ids AND s.status = :status AND s.endDate <= :endDate")
+    List<ExpiryCandidate> findExpiryCandidatesByIds(@Param("ids") Collection<Long> ids,
+                                                    @Param("status") Subscription.SubscriptionStatus status,
+                                                    @Param("endDate") LocalDateTime endDate);
+    
+    @Modifying
+    @Query("UPDATE Subscription s SET s.status = :newStatus, s.activeUserId = NULL, " +
+           "s.version = s.version + 1, s.updatedAt = :now " +
+           "WHERE s.id IN :ids AND s.status = com.firstclub.firstclub.model.Subscription.SubscriptionStatus.ACTIVE")
+    int deactivateByIds(@Param("ids") Collection<Long> ids,
+                        @Param("newStatus") Subscription.SubscriptionStatus newStatus,
+                        @Param("now") LocalDateTime now);
 }
@@ -1,13 +1,16 @@
 package com.firstclub.firstclub.repository;
 
 import com.firstclub.firstclub.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -0,0 +1,107 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.ActiveSubscriptionCacheProperties;
+import com.firstclub.firstclub.dto.CacheStatsDTO;
+import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded near-cache of each user's active subscription, including the absence
+ * of one.
+ * 
+ * Entries are invalidated by {@link SubscriptionService} and the expiry sweep on
+ * every state change, both immediately and again once the transaction commits so
+ * a concurrent reader cannot re-populate the entry with pre-commit data.
+ * 
+ * Misses are loaded on the calling thread outside of any map lock, so a virtual
+ * thread blocked on JDBC never pins its carrier; concurrent callers for the same
+ * user wait on the in-flight load instead of issuing their own query.
+ */
+@Component
+public class ActiveSubscriptionCache {
+    
+    private final AsyncCache<Long, Optional<SubscriptionDTO>> cache;
+    
+    public ActiveSubscriptionCache(ActiveSubscriptionCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "activeSubscriptions");
+    }
+    
+    /**
+     * Get the cached active subscription for a user, loading it on a miss.
+     * 
+     * @param userId the user ID
+     * @param loader loads the active subscription when it is not cached
+     * @return the active subscription, or empty if the user has none
+     */
+    public Optional<SubscriptionDTO> get(Long userId, Function<Long, Optional<SubscriptionDTO>> loader) {
+        CompletableFuture<Optional<SubscriptionDTO>> pending = new CompletableFuture<>();
+        CompletableFuture<Optional<SubscriptionDTO>> future = cache.get(userId, (key, executor) -> pending);
+        if (future == pending) {
+            try {
+                pending.complete(loader.apply(userId));
+            } catch (RuntimeException e) {
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Drop the entry for a user.
+     * 
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        cache.synchronous().invalidate(userId);
+        AfterCommit.run(() -> cache.synchronous().invalidate(userId));
+    }
+    
+    /**
+     * Drop the entries for several users.
+     * 
+     * @param userIds the user IDs
+     */
+    public void invalidateAll(Collection<Long> userIds) {
+        cache.synchronous().invalidateAll(userIds);
+        AfterCommit.run(() -> cache.synchronous().invalidateAll(userIds));
+    }
+    
+    /**
+     * Get hit, miss and eviction statistics.
+     * 
+     * @return cache statistics
+     */
+    public CacheStatsDTO getStats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new CacheStatsDTO(
+                cache.synchronous().estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount());
+    }
+}
@@ -0,0 +1,32 @@
+package com.firstclub.firstclub.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helper for deferring side effects until the surrounding transaction commits.
+ */
+final class AfterCommit {
+    
+    private AfterCommit() {
+    }
+    
+    /**
+     * Run the action once the current transaction commits, or immediately if
+     * there is no transaction in progress.
+     * 
+     * @param action the action to run
+     */
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,26 +1,32 @@
 package com.firstclub.firstclub.service;
 
+import com.firstclub.firstclub.dto.CursorPage;
 import com.firstclub.firstclub.dto.BenefitDTO;
 import com.firstclub.firstclub.model.Benefit;
 import com.firstclub.firstclub.model.MembershipTier;
 import com.firstclub.firstclub.repository.BenefitRepository;
 import com.firstclub.firstclub.repository.MembershipTierRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * Service class for Benefit-related business logic.
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "firstclub.service", histogram = true)
 public class BenefitService {
     
     private final BenefitRepository benefitRepository;
     private final MembershipTierRepository tierRepository;
+    private final EntitlementCatalog entitlementCatalog;
+    private final CatalogVersion catalogVersion;
     
     /**
      * Create a new benefit.
@@ -42,6 +48,8 @@ public class BenefitService {
         benefit.setActive(benefitDTO.getActive() != null ? benefitDTO.getActive() : true);
         
         Benefit savedBenefit = benefitRepository.save(benefit);
+        entitlementCatalog.rebuildAfterCommit();
+        catalogVersion.advanceAfterCommit();
         return convertToDTO(savedBenefit);
     }
     
@@ -51,21 +59,25 @@ public class BenefitService {
      * @param id the benefit ID
      * @return benefit DTO
      */
+    @Transactional(readOnly = true)
     public BenefitDTO getBenefitById(Long id) {
-        Benefit benefit = benefitRepository.findById(id)
+        return benefitRepository.findDtoById(id)
                 .orElseThrow(() -> new RuntimeException("Benefit not found with id: " + id));
-        return convertToDTO(benefit);
     }
     
     /**
-     * Get all benefits.
+     * Get all benefits, one page at a time.
      * 
-     * @return list of benefit DTOs
+     * @param cursor continuation token from the previous page, or null for the first page
+     * @param limit maximum number of items to return
+     * @return page of benefit DTOs ordered by id
      */
-    public List<BenefitDTO> getAllBenefits() {
-        return benefitRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<BenefitDTO> getAllBenefits(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<BenefitDTO> rows = benefitRepository.findDtoPage(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BenefitDTO::getId, Function.identity());
     }
     
     /**
@@ -74,10 +86,9 @@ public class BenefitService {
      * @param tierId the tier ID
      * @return list of benefit DTOs
      */
+    @Transactional(readOnly = true)
     public List<BenefitDTO> getBenefitsByTier(Long tierId) {
-        return benefitRepository.findByTierId(tierId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return benefitRepository.findDtoByTierId(tierId);
     }
     
     /**
@@ -86,10 +97,9 @@ public class BenefitService {
      * @param tierId the tier ID
      * @return list of active benefit DTOs
      */
+    @Transactional(readOnly = true)
     public List<BenefitDTO> getActiveBenefitsByTier(Long tierId) {
-        return benefitRepository.findByTierIdAndActive(tierId, true).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogVersion.read(() -> benefitRepository.findDtoByTierIdAndActive(tierId, true));
     }
     
     /**
@@ -101,7 +111,7 @@ public class BenefitService {
      */
     @Transactional
     public BenefitDTO updateBenefit(Long id, BenefitDTO benefitDTO) {
-        Benefit benefit = benefitRepository.findById(id)
+        Benefit benefit = benefitRepository.findWithTierById(id)
                 .orElseThrow(() -> new RuntimeException("Benefit not found with id: " + id));
         
         if (benefitDTO.getTierId() != null && !benefitDTO.getTierId().equals(benefit.getTier().getId())) {
@@ -119,6 +129,8 @@ public class BenefitService {
         }
         
         Benefit updatedBenefit = benefitRepository.save(benefit);
+        entitlementCatalog.rebuildAfterCommit();
+        catalogVersion.advanceAfterCommit();
         return convertToDTO(updatedBenefit);
     }
     
@@ -133,6 +145,8 @@ public class BenefitService {
             throw new RuntimeException("Benefit not found with id: " + id);
         }
         benefitRepository.deleteById(id);
+        entitlementCatalog.rebuildAfterCommit();
+        catalogVersion.advanceAfterCommit();
     }
     
     /**
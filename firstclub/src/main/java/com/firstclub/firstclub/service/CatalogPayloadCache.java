@@ -0,0 +1,129 @@
+package com.firstclub.firstclub.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.firstclub.dto.ApiResponse;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Active plan and tier responses rendered once into JSON bytes, plain and gzipped.
+ * 
+ * Each payload is tied to the {@link CatalogVersion} it was rendered at and is
+ * rendered again by the first request after the version advances. Every other
+ * request is served the same arrays without querying or serializing.
+ */
+@Component
+public class CatalogPayloadCache {
+    
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final Slot activePlans;
+    private final Slot activeTiers;
+    
+    CatalogPayloadCache(MembershipPlanService planService, MembershipTierService tierService,
+                        CatalogVersion catalogVersion, ObjectMapper objectMapper) {
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.activePlans = new Slot(planService::getActivePlans);
+        this.activeTiers = new Slot(tierService::getActiveTiers);
+    }
+    
+    /**
+     * Get the rendered active plans response.
+     * 
+     * @return payload for the current catalog version
+     */
+    public Payload activePlans() {
+        return activePlans.get();
+    }
+    
+    /**
+     * Get the rendered active tiers response.
+     * 
+     * @return payload for the current catalog version
+     */
+    public Payload activeTiers() {
+        return activeTiers.get();
+    }
+    
+    private Payload render(Supplier<List<?>> read) {
+        CatalogVersion.Stamp stamp = catalogVersion.current();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(ApiResponse.success(read.get()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to render catalog response", e);
+        }
+        return new Payload(stamp, json, gzip(json));
+    }
+    
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Holds one payload and re-renders it when the catalog version moves on.
+     */
+    private final class Slot {
+        
+        private final Supplier<List<?>> read;
+        private final ReentrantLock renderLock = new ReentrantLock();
+        
+        private volatile Payload payload;
+        
+        private Slot(Supplier<List<?>> read) {
+            this.read = read;
+        }
+        
+        Payload get() {
+            Payload current = payload;
+            if (current != null && current.stamp.getVersion() == catalogVersion.current().getVersion()) {
+                return current;
+            }
+            renderLock.lock();
+            try {
+                current = payload;
+                if (current == null || current.stamp.getVersion() != catalogVersion.current().getVersion()) {
+                    current = render(read);
+                    payload = current;
+                }
+                return current;
+            } finally {
+                renderLock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * A rendered response. The arrays are shared between requests and must not be
+     * modified.
+     */
+    @Getter
+    public static final class Payload {
+        
+        private final CatalogVersion.Stamp stamp;
+        private final byte[] json;
+        private final byte[] gzip;
+        
+        private Payload(CatalogVersion.Stamp stamp, byte[] json, byte[] gzip) {
+            this.stamp = stamp;
+            this.json = json;
+            this.gzip = gzip;
+        }
+    }
+}
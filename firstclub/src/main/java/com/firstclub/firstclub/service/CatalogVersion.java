@@ -0,0 +1,113 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.ReadWriteRoutingDataSource;
+import com.firstclub.firstclub.config.ReplicaDataSourceProperties;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Version of the plan, tier and benefit catalog, used to answer conditional GETs.
+ * 
+ * {@link MembershipPlanService}, {@link MembershipTierService} and
+ * {@link BenefitService} advance it after each committed mutation. ETags combine
+ * the version with the instance start time, so a restarted instance never reuses
+ * an ETag for different content. Each version's {@code Last-Modified} is at least
+ * a second after the previous one's, so {@code If-Modified-Since} tells apart
+ * versions created within the same second.
+ */
+@Component
+public class CatalogVersion {
+    
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final long stalenessWindowMillis;
+    
+    private volatile Stamp current;
+    
+    CatalogVersion(ReplicaDataSourceProperties replicaProperties) {
+        this.stalenessWindowMillis = StringUtils.hasText(replicaProperties.getUrl())
+                ? replicaProperties.getStalenessWindow().toMillis()
+                : 0;
+        this.current = new Stamp(0, epoch, System.currentTimeMillis() / 1000 * 1000);
+    }
+    
+    /**
+     * Get the current version. Read it before the catalog itself, so a concurrent
+     * mutation can only pair newer content with an older ETag, never the reverse.
+     * 
+     * @return the current stamp
+     */
+    public Stamp current() {
+        return current;
+    }
+    
+    /**
+     * Advance the version once the current transaction commits.
+     */
+    public void advanceAfterCommit() {
+        AfterCommit.run(this::advance);
+    }
+    
+    /**
+     * Run a catalog read, on the primary if the catalog changed within the replica
+     * staleness window; otherwise a lagging replica could serve old content under
+     * the new ETag. Must be called before the read's transaction has issued any
+     * statement.
+     * 
+     * @param read the read
+     * @return the read's result
+     */
+    <T> T read(Supplier<T> read) {
+        if (stalenessWindowMillis > 0
+                && System.currentTimeMillis() - current.changedAt < stalenessWindowMillis) {
+            return ReadWriteRoutingDataSource.onPrimary(read);
+        }
+        return read.get();
+    }
+    
+    private synchronized void advance() {
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        current = new Stamp(current.version + 1, epoch, Math.max(now, current.lastModified + 1000));
+    }
+    
+    /**
+     * One catalog version with its HTTP validators.
+     */
+    @Getter
+    public static final class Stamp {
+        
+        private final long version;
+        
+        /**
+         * Quoted strong ETag.
+         */
+        private final String eTag;
+        
+        /**
+         * Quoted strong ETag of the gzip-encoded representation, which differs
+         * from the identity one byte for byte.
+         */
+        private final String gzipETag;
+        
+        /**
+         * When this version was created, in epoch milliseconds truncated to whole
+         * seconds as {@code Last-Modified} requires, and moved forward if needed to
+         * be later than the previous version's.
+         */
+        private final long lastModified;
+        
+        @Getter(AccessLevel.NONE)
+        private final long changedAt = System.currentTimeMillis();
+        
+        private Stamp(long version, String epoch, long lastModified) {
+            this.version = version;
+            this.eTag = "\"" + epoch + "-" + version + "\"";
+            this.gzipETag = "\"" + epoch + "-" + version + "-gzip\"";
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.ReadWriteRoutingDataSource;
+import com.firstclub.firstclub.dto.BenefitDTO;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.repository.BenefitRepository;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Copy-on-write snapshot of every tier's flags and active benefits.
+ * 
+ * Entitlement lookups read the current snapshot without touching the database.
+ * {@link MembershipTierService} and {@link BenefitService} rebuild it after each
+ * committed mutation, and once more when the application is ready, after the
+ * initial tiers are seeded; readers holding the previous snapshot are unaffected.
+ * Loads are serialized, so a slow load that read older data cannot replace the
+ * snapshot of one that started after it.
+ * An empty snapshot is used but never kept, so a lookup made before seeding
+ * cannot leave the catalog empty.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntitlementCatalog {
+    
+    private final MembershipTierRepository tierRepository;
+    private final BenefitRepository benefitRepository;
+    
+    private final ReentrantLock loadLock = new ReentrantLock();
+    
+    private volatile Map<Long, TierEntitlements> snapshot;
+    
+    /**
+     * Find the entitlements granted by a tier.
+     * 
+     * @param tierId the tier ID
+     * @return the tier's entitlements, or null if the tier does not exist
+     */
+    public TierEntitlements find(Long tierId) {
+        return current().get(tierId);
+    }
+    
+    /**
+     * Reload the snapshot from the primary database, so a lagging replica is never
+     * cached.
+     */
+    public void rebuild() {
+        load();
+    }
+    
+    /**
+     * Reload the snapshot once the initial tiers have been seeded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildWhenReady() {
+        rebuild();
+    }
+    
+    private Map<Long, TierEntitlements> load() {
+        loadLock.lock();
+        try {
+            Map<Long, TierEntitlements> loaded = ReadWriteRoutingDataSource.onPrimary(this::read);
+            snapshot = loaded.isEmpty() ? null : loaded;
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+    
+    private Map<Long, TierEntitlements> read() {
+        Map<Long, List<BenefitDTO>> benefitsByTier = benefitRepository.findDtoByActive(true).stream()
+                .collect(Collectors.groupingBy(BenefitDTO::getTierId));
+        
+        Map<Long, TierEntitlements> tiers = new HashMap<>();
+        for (MembershipTier tier : tierRepository.findAll()) {
+            tiers.put(tier.getId(), new TierEntitlements(
+                    tier.getId(),
+                    tier.getName(),
+                    tier.getTierLevel(),
+                    tier.getDiscountPercentage(),
+                    Boolean.TRUE.equals(tier.getFreeDelivery()),
+                    Boolean.TRUE.equals(tier.getPrioritySupport()),
+                    Boolean.TRUE.equals(tier.getExclusiveDeals()),
+                    List.copyOf(benefitsByTier.getOrDefault(tier.getId(), List.of()))));
+        }
+        return Map.copyOf(tiers);
+    }
+    
+    /**
+     * Reload the snapshot once the current transaction commits.
+     */
+    public void rebuildAfterCommit() {
+        AfterCommit.run(this::rebuild);
+    }
+    
+    private Map<Long, TierEntitlements> current() {
+        Map<Long, TierEntitlements> current = snapshot;
+        if (current == null) {
+            loadLock.lock();
+            try {
+                current = snapshot != null ? snapshot : load();
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Immutable view of one tier's flags and active benefits.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class TierEntitlements {
+        
+        private final Long tierId;
+        private final String tierName;
+        private final MembershipTier.TierLevel tierLevel;
+        private final Long discountPercentage;
+        private final boolean freeDelivery;
+        private final boolean prioritySupport;
+        private final boolean exclusiveDeals;
+        private final List<BenefitDTO> benefits;
+    }
+}
@@ -0,0 +1,116 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.dto.EntitlementDTO;
+import com.firstclub.firstclub.dto.MemberEntitlementDTO;
+import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.model.Subscription;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class for resolving what a member is entitled to.
+ */
+@Service
+@RequiredArgsConstructor
+@Timed(value = "firstclub.service", histogram = true)
+public class EntitlementService {
+    
+    public static final int MAX_BATCH_SIZE = 1000;
+    
+    private static final String ACTIVE_MEMBERSHIPS_SQL =
+            "SELECT user_id, tier_id, end_date FROM subscriptions " +
+            "WHERE user_id IN (:userIds) AND status = :status";
+    
+    private final SubscriptionService subscriptionService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntitlementCatalog entitlementCatalog;
+    
+    /**
+     * Get the plan, tier flags and active benefits of a user's active subscription.
+     * Tier data comes from the in-memory catalog, so the only lookup is the
+     * (cached) active subscription.
+     * 
+     * @param userId the user ID
+     * @return entitlement DTO
+     */
+    public EntitlementDTO getUserEntitlements(Long userId) {
+        SubscriptionDTO subscription = subscriptionService.getActiveSubscription(userId);
+        EntitlementCatalog.TierEntitlements tier = entitlementCatalog.find(subscription.getTierId());
+        if (tier == null) {
+            throw new RuntimeException("Tier not found with id: " + subscription.getTierId());
+        }
+        
+        return new EntitlementDTO(
+                userId,
+                subscription.getId(),
+                subscription.getPlanId(),
+                subscription.getPlanName(),
+                subscription.getEndDate(),
+                tier.getTierId(),
+                tier.getTierName(),
+                tier.getTierLevel(),
+                tier.getDiscountPercentage(),
+                tier.isFreeDelivery(),
+                tier.isPrioritySupport(),
+                tier.isExclusiveDeals(),
+                tier.getBenefits());
+    }
+    
+    /**
+     * Resolve the membership of many users at once with a single query on active
+     * subscriptions; tier flags come from the in-memory catalog. The query runs
+     * over plain JDBC because Hibernate re-translates a JPQL IN list on every
+     * execution, which costs several times the query itself at a few hundred ids.
+     * 
+     * @param userIds the user IDs, at most {@link #MAX_BATCH_SIZE} distinct
+     * @return entitlement per requested user ID, in request order; users without an
+     *         active subscription map to a non-member entry
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, MemberEntitlementDTO> getEntitlements(List<Long> userIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(userIds);
+        distinctIds.remove(null);
+        if (distinctIds.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Batch size exceeds maximum of " + MAX_BATCH_SIZE);
+        }
+        
+        Map<Long, MemberEntitlementDTO> entitlements = new LinkedHashMap<>();
+        for (Long userId : distinctIds) {
+            entitlements.put(userId, MemberEntitlementDTO.nonMember());
+        }
+        if (distinctIds.isEmpty()) {
+            return entitlements;
+        }
+        
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userIds", distinctIds)
+                .addValue("status", Subscription.SubscriptionStatus.ACTIVE.name());
+        jdbcTemplate.query(ACTIVE_MEMBERSHIPS_SQL, parameters, (ResultSet rs) -> {
+            long tierId = rs.getLong("tier_id");
+            Timestamp endDate = rs.getTimestamp("end_date");
+            EntitlementCatalog.TierEntitlements tier = entitlementCatalog.find(tierId);
+            entitlements.put(rs.getLong("user_id"), new MemberEntitlementDTO(
+                    true,
+                    tier != null ? tier.getTierLevel() : null,
+                    tierId,
+                    endDate != null ? endDate.toLocalDateTime() : null,
+                    tier != null ? tier.getDiscountPercentage() : null,
+                    tier != null && tier.isFreeDelivery(),
+                    tier != null && tier.isPrioritySupport(),
+                    tier != null && tier.isExclusiveDeals()));
+        });
+        return entitlements;
+    }
+}
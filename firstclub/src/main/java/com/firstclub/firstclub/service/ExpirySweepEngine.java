@@ -0,0 +1,282 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.ExpirySweepProperties;
+import com.firstclub.firstclub.config.ExpiryWheelProperties;
+import com.firstclub.firstclub.config.ReadWriteRoutingDataSource;
+import com.firstclub.firstclub.dto.ExpiryCandidate;
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expires or renews subscriptions past their end date.
+ * 
+ * Subscriptions are normally fired from the {@link SubscriptionExpiryWheel} within
+ * seconds of their end date, a small batch at a time. The scheduled sweep below
+ * scans for every due subscription instead and remains as a fallback.
+ * 
+ * Due subscriptions are read in keyset order on (endDate, id) so no page ever
+ * holds more than one chunk in memory. Each chunk is handed to a worker that
+ * expires its non-auto-renew rows with a single set-based update and renews the
+ * rest in bulk through {@link SubscriptionRenewalEngine}, committing independently
+ * of every other chunk. Workers are virtual threads when
+ * {@code spring.threads.virtual.enabled} is set; either way at most
+ * {@code parallelism * 2} chunks are in flight.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpirySweepEngine {
+    
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionRenewalEngine renewalEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ExpirySweepProperties properties;
+    private final ExpiryWheelProperties wheelProperties;
+    private final SubscriptionExpiryWheel expiryWheel;
+    private final ActiveSubscriptionCache activeSubscriptionCache;
+    private final MembershipMetrics membershipMetrics;
+    private final SubscriptionHistoryLog historyLog;
+    private final RecentWriteTracker recentWriteTracker;
+    private final Environment environment;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    /**
+     * Expire or renew the subscriptions the wheel reports as due. Each batch is
+     * re-read by ID so subscriptions cancelled or renewed since they were
+     * scheduled are skipped; failures are picked up again by the next refill.
+     * 
+     * @return counts for the due subscriptions
+     */
+    @Scheduled(fixedDelayString = "${firstclub.expiry-wheel.poll-interval-ms:1000}")
+    public SweepResult fireDue() {
+        SweepResult result = new SweepResult();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = expiryWheel.pollDue(now);
+        int batchSize = Math.max(1, wheelProperties.getBatchSize());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            List<ExpiryCandidate> candidates = ReadWriteRoutingDataSource.onPrimary(() ->
+                    subscriptionRepository.findExpiryCandidatesByIds(
+                            batch, Subscription.SubscriptionStatus.ACTIVE, now));
+            result.scanned.addAndGet(candidates.size());
+            processChunk(candidates, now, result);
+        }
+        if (result.getScanned() > 0) {
+            log.info("Expiry wheel fired: {}", result);
+        }
+        return result;
+    }
+    
+    /**
+     * Run the sweep on the configured schedule.
+     */
+    @Scheduled(cron = "${firstclub.expiry-sweep.cron:0 */5 * * * *}")
+    public void scheduledSweep() {
+        SweepResult result = sweep();
+        if (result.getScanned() > 0) {
+            log.info("Expiry sweep finished: {}", result);
+        }
+    }
+    
+    /**
+     * Expire or renew every active subscription whose end date has passed.
+     * Concurrent invocations are skipped while a sweep is already running.
+     * 
+     * @return counts for the sweep
+     */
+    public SweepResult sweep() {
+        SweepResult result = new SweepResult();
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Expiry sweep already running, skipping");
+            return result;
+        }
+        
+        int parallelism = Math.max(1, properties.getParallelism());
+        ExecutorService executor = Threading.VIRTUAL.isActive(environment)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(parallelism);
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime afterEndDate = KEYSET_START;
+            long afterId = 0L;
+            
+            while (true) {
+                List<ExpiryCandidate> chunk = subscriptionRepository.findExpiringSoon(
+                        Subscription.SubscriptionStatus.ACTIVE, now, afterEndDate, afterId,
+                        Limit.of(properties.getChunkSize()));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                
+                ExpiryCandidate last = chunk.get(chunk.size() - 1);
+                afterEndDate = last.getEndDate();
+                afterId = last.getId();
+                result.scanned.addAndGet(chunk.size());
+                
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        processChunk(chunk, now, result);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                
+                if (chunk.size() < properties.getChunkSize()) {
+                    break;
+                }
+            }
+            
+            inFlight.acquire(parallelism * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+            running.set(false);
+        }
+        return result;
+    }
+    
+    private void processChunk(List<ExpiryCandidate> chunk, LocalDateTime now, SweepResult result) {
+        List<ExpiryCandidate> toExpire = new ArrayList<>();
+        List<Long> toRenew = new ArrayList<>();
+        for (ExpiryCandidate candidate : chunk) {
+            if (Boolean.TRUE.equals(candidate.getAutoRenew())) {
+                toRenew.add(candidate.getId());
+            } else {
+                toExpire.add(candidate);
+            }
+        }
+        
+        if (!toExpire.isEmpty()) {
+            try {
+                List<ExpiryCandidate> expired = expire(toExpire, now);
+                result.expired.addAndGet(expired.size());
+                
+                Map<List<String>, Long> expiredByPlanAndTier = new HashMap<>();
+                for (ExpiryCandidate candidate : expired) {
+                    historyLog.record(SubscriptionHistoryDTO.Event.EXPIRED, candidate.getId(), candidate.getUserId(),
+                            null, candidate.getEndDate());
+                    expiredByPlanAndTier.merge(
+                            Arrays.asList(candidate.getPlanName(), candidate.getTierName()), 1L, Long::sum);
+                }
+                expiredByPlanAndTier.forEach((planAndTier, count) ->
+                        membershipMetrics.subscriptionsExpired(planAndTier.get(0), planAndTier.get(1), count));
+            } catch (RuntimeException e) {
+                log.error("Failed to expire chunk of {} subscriptions", toExpire.size(), e);
+                result.failed.addAndGet(toExpire.size());
+            }
+        }
+        
+        if (!toRenew.isEmpty()) {
+            SubscriptionRenewalEngine.RenewalResult renewal = renewalEngine.renew(toRenew);
+            result.renewed.addAndGet(renewal.getRenewed());
+            result.expired.addAndGet(renewal.getExpired());
+            result.failed.addAndGet(renewal.getFailed());
+        }
+    }
+    
+    /**
+     * Expire the candidates with one update. If it touches fewer rows than given,
+     * because some were cancelled, renewed or expired concurrently, it is rolled
+     * back and the candidates are expired one per transaction, so only those that
+     * this call actually expired are returned.
+     */
+    private List<ExpiryCandidate> expire(List<ExpiryCandidate> candidates, LocalDateTime now) {
+        List<Long> ids = candidates.stream().map(ExpiryCandidate::getId).toList();
+        List<Long> userIds = candidates.stream().map(ExpiryCandidate::getUserId).toList();
+        Integer updated = transactionTemplate.execute(status -> {
+            userIds.forEach(recentWriteTracker::recordAfterCommit);
+            int count = subscriptionRepository.deactivateByIds(ids, Subscription.SubscriptionStatus.EXPIRED, now);
+            if (count != ids.size() && ids.size() > 1) {
+                status.setRollbackOnly();
+            }
+            return count;
+        });
+        if (updated != null && updated == ids.size()) {
+            activeSubscriptionCache.invalidateAll(userIds);
+            return candidates;
+        }
+        if (candidates.size() == 1) {
+            return List.of();
+        }
+        
+        log.debug("Expiry of {} subscriptions conflicted, retrying individually", candidates.size());
+        List<ExpiryCandidate> expired = new ArrayList<>();
+        for (ExpiryCandidate candidate : candidates) {
+            expired.addAll(expire(List.of(candidate), now));
+        }
+        return expired;
+    }
+    
+    private void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Counters collected during a sweep.
+     */
+    public static class SweepResult {
+        
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong expired = new AtomicLong();
+        private final AtomicLong renewed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        
+        public long getScanned() {
+            return scanned.get();
+        }
+        
+        public long getExpired() {
+            return expired.get();
+        }
+        
+        public long getRenewed() {
+            return renewed.get();
+        }
+        
+        public long getFailed() {
+            return failed.get();
+        }
+        
+        @Override
+        public String toString() {
+            return "scanned=" + scanned + ", expired=" + expired
+                    + ", renewed=" + renewed + ", failed=" + failed;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.firstclub.firstclub.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.firstclub.firstclub.config.ExportProperties;
+import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.dto.UserDTO;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams subscriptions and users as newline-delimited JSON.
+ * 
+ * Rows are read through a forward-only cursor on a stateless session, so no
+ * persistence context builds up, and each row is written as soon as it is read.
+ * Memory use depends on the fetch size, not on how many rows are exported. The
+ * export runs in a read-only transaction and therefore on the replica when one
+ * is configured.
+ */
+@Slf4j
+@Service
+public class ExportService {
+    
+    private static final String SELECT_USER_DTO = "SELECT new com.firstclub.firstclub.dto.UserDTO(" +
+            "u.id, u.email, u.name, u.phoneNumber, u.totalOrderCount, u.totalOrderValue) " +
+            "FROM User u ";
+    
+    private final SessionFactory sessionFactory;
+    private final DataSource dataSource;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ExportProperties properties;
+    
+    public ExportService(EntityManagerFactory entityManagerFactory,
+                         DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         ExportProperties properties) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.dataSource = dataSource;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+    
+    /**
+     * Check that a created-at range is well formed.
+     * 
+     * @param from inclusive lower bound, or null
+     * @param to exclusive upper bound, or null
+     */
+    public void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+    }
+    
+    /**
+     * Write subscriptions as NDJSON, ordered by id.
+     * 
+     * @param status only export subscriptions in this status, or null for all
+     * @param from only export subscriptions created at or after this time, or null
+     * @param to only export subscriptions created before this time, or null
+     * @param out the stream to write to; flushed but not closed
+     * @return number of rows written
+     */
+    public long exportSubscriptions(Subscription.SubscriptionStatus status,
+                                    LocalDateTime from,
+                                    LocalDateTime to,
+                                    OutputStream out) {
+        validateRange(from, to);
+        StringBuilder hql = new StringBuilder(SubscriptionRepository.SELECT_DTO).append("WHERE 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (status != null) {
+            hql.append(" AND s.status = :status");
+            parameters.put("status", status);
+        }
+        appendCreatedRange(hql, "s", from, to, parameters);
+        hql.append(" ORDER BY s.id");
+        return export(hql.toString(), parameters, SubscriptionDTO.class, out);
+    }
+    
+    /**
+     * Write users as NDJSON, ordered by id.
+     * 
+     * @param from only export users created at or after this time, or null
+     * @param to only export users created before this time, or null
+     * @param out the stream to write to; flushed but not closed
+     * @return number of rows written
+     */
+    public long exportUsers(LocalDateTime from, LocalDateTime to, OutputStream out) {
+        validateRange(from, to);
+        StringBuilder hql = new StringBuilder(SELECT_USER_DTO).append("WHERE 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        appendCreatedRange(hql, "u", from, to, parameters);
+        hql.append(" ORDER BY u.id");
+        return export(hql.toString(), parameters, UserDTO.class, out);
+    }
+    
+    private void appendCreatedRange(StringBuilder hql, String alias, LocalDateTime from, LocalDateTime to,
+                                    Map<String, Object> parameters) {
+        if (from != null) {
+            hql.append(" AND ").append(alias).append(".createdAt >= :from");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            hql.append(" AND ").append(alias).append(".createdAt < :to");
+            parameters.put("to", to);
+        }
+    }
+    
+    private <T> long export(String hql, Map<String, Object> parameters, Class<T> type, OutputStream out) {
+        Long rows = readOnlyTransaction.execute(status -> {
+            // Share the transaction's connection so the export is routed like any other read
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try (StatelessSession session = sessionFactory.withStatelessOptions()
+                    .connection(connection)
+                    .openStatelessSession()) {
+                SelectionQuery<T> query = session.createSelectionQuery(hql, type)
+                        .setFetchSize(properties.getFetchSize())
+                        .setReadOnly(true);
+                parameters.forEach(query::setParameter);
+                try (ScrollableResults<T> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                    return write(results, type, out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        });
+        return rows != null ? rows : 0L;
+    }
+    
+    private <T> long write(ScrollableResults<T> results, Class<T> type, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(type)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int flushEvery = Math.max(1, properties.getFetchSize());
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (results.next()) {
+                writer.writeValue(generator, results.get());
+                generator.writeRaw('\n');
+                if (++rows % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        log.debug("Exported {} {} rows", rows, type.getSimpleName());
+        return rows;
+    }
+}
@@ -0,0 +1,119 @@
+package com.firstclub.firstclub.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A snapshot of the history log's two position tables, taken when a segment is
+ * sealed, so a restart only has to scan the segments written after it.
+ * 
+ * The file is named after its end, the position of the first record it does not
+ * cover, which is the base of the segment started after the sealed one. It holds:
+ * 
+ * <pre>
+ * magic, int
+ * end, long
+ * subscription table: entry count, int, then (ID, position) pairs of longs
+ * user table: entry count, int, then (ID, position) pairs of longs
+ * CRC-32 of everything before it, long
+ * </pre>
+ * 
+ * Checkpoints are written to a temporary file, forced and renamed into place, so
+ * a crash leaves either the previous checkpoint or the new one.
+ */
+final class HistoryCheckpoint {
+    
+    private static final String SUFFIX = ".hidx";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x48494458;
+    private static final int BUFFER_SIZE = 1 << 16;
+    
+    private HistoryCheckpoint() {
+    }
+    
+    /**
+     * Write a checkpoint covering every record before a position.
+     * 
+     * @param directory the log directory
+     * @param end position of the first record not covered
+     * @param subscriptionHeads latest position per subscription
+     * @param userHeads latest position per user
+     * @return the checkpoint file
+     * @throws IOException if the file cannot be written
+     */
+    static Path write(Path directory, long end, SubscriptionHistoryLog.PositionIndex subscriptionHeads,
+                      SubscriptionHistoryLog.PositionIndex userHeads) throws IOException {
+        Path file = directory.resolve(fileName(end));
+        Path temporary = directory.resolve(fileName(end) + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), crc));
+            out.writeInt(MAGIC);
+            out.writeLong(end);
+            subscriptionHeads.writeTo(out);
+            userHeads.writeTo(out);
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+    
+    /**
+     * Read a checkpoint into empty tables.
+     * 
+     * @param file the checkpoint file
+     * @param subscriptionHeads table to fill with the latest position per subscription
+     * @param userHeads table to fill with the latest position per user
+     * @return true if the file was complete and undamaged; otherwise the tables
+     *         hold partial content and must be discarded
+     */
+    static boolean read(Path file, SubscriptionHistoryLog.PositionIndex subscriptionHeads,
+                        SubscriptionHistoryLog.PositionIndex userHeads) {
+        CRC32 crc = new CRC32();
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(
+                    new BufferedInputStream(stream, BUFFER_SIZE), crc));
+            if (in.readInt() != MAGIC || in.readLong() != endOf(file)) {
+                return false;
+            }
+            subscriptionHeads.readFrom(in);
+            userHeads.readFrom(in);
+            long checksum = crc.getValue();
+            return in.readLong() == checksum && in.read() == -1;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+    
+    static boolean isCheckpoint(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(SUFFIX) && name.length() > SUFFIX.length()
+                && name.chars().limit(name.length() - SUFFIX.length()).allMatch(Character::isDigit);
+    }
+    
+    static long endOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+    
+    private static String fileName(long end) {
+        return String.format("%020d%s", end, SUFFIX);
+    }
+}
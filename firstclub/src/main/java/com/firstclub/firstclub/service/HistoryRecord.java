@@ -0,0 +1,51 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One entry of the subscription history log, as queued by a request and as read
+ * back from a segment.
+ */
+final class HistoryRecord {
+    
+    /**
+     * Position value meaning there is no earlier record.
+     */
+    static final long NONE = -1;
+    
+    final SubscriptionHistoryDTO.Event event;
+    final long timestamp;
+    final long subscriptionId;
+    final long userId;
+    final long tierId;
+    final LocalDateTime endDate;
+    
+    /**
+     * Position of the previous record for the same subscription; set by the writer.
+     */
+    long previousForSubscription = NONE;
+    
+    /**
+     * Position of the previous record for the same user; set by the writer.
+     */
+    long previousForUser = NONE;
+    
+    HistoryRecord(SubscriptionHistoryDTO.Event event, long timestamp, long subscriptionId, long userId,
+                  long tierId, LocalDateTime endDate) {
+        this.event = event;
+        this.timestamp = timestamp;
+        this.subscriptionId = subscriptionId;
+        this.userId = userId;
+        this.tierId = tierId;
+        this.endDate = endDate;
+    }
+    
+    SubscriptionHistoryDTO toDTO(ZoneId zone) {
+        return new SubscriptionHistoryDTO(event, subscriptionId, userId, tierId != 0 ? tierId : null, endDate,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone));
+    }
+}
@@ -0,0 +1,265 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * A memory-mapped file of fixed-size history records.
+ * 
+ * Records are addressed by position, a number counted across all segments; a
+ * segment holds the positions from its base, which is also its file name, up to
+ * its capacity. Each record is 64 bytes:
+ * 
+ * <pre>
+ *  0  timestamp, epoch milliseconds
+ *  8  subscription ID
+ * 16  user ID
+ * 24  tier ID, 0 if unknown
+ * 32  end date, local epoch milliseconds
+ * 40  position of the previous record for the subscription, -1 if none
+ * 48  position of the previous record for the user, -1 if none
+ * 56  event, 1 + its ordinal; 0 marks an unwritten slot
+ * 60  CRC-32 of bytes 0 to 59
+ * </pre>
+ * 
+ * Writes are not thread-safe and must come from one thread. Reads of positions
+ * whose write has been published to the reading thread are safe from any thread.
+ */
+final class HistorySegment {
+    
+    static final int RECORD_SIZE = 64;
+    
+    private static final String SUFFIX = ".hlog";
+    
+    private static final int TIMESTAMP = 0;
+    private static final int SUBSCRIPTION_ID = 8;
+    private static final int USER_ID = 16;
+    private static final int TIER_ID = 24;
+    private static final int END_DATE = 32;
+    private static final int PREVIOUS_FOR_SUBSCRIPTION = 40;
+    private static final int PREVIOUS_FOR_USER = 48;
+    private static final int EVENT = 56;
+    private static final int CHECKSUM = 60;
+    
+    private static final long NO_END_DATE = Long.MIN_VALUE;
+    private static final SubscriptionHistoryDTO.Event[] EVENTS = SubscriptionHistoryDTO.Event.values();
+    
+    private final long base;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private int count;
+    
+    private HistorySegment(long base, int capacity, FileChannel channel) throws IOException {
+        this.base = base;
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+    }
+    
+    /**
+     * Create an empty segment file.
+     * 
+     * @param directory the log directory
+     * @param base position of the segment's first record
+     * @param capacity number of records the segment holds
+     * @return the mapped segment
+     * @throws IOException if the file cannot be created or mapped
+     */
+    static HistorySegment create(Path directory, long base, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(fileName(base)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new HistorySegment(base, capacity, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Map an existing segment file. Call {@link #recover} or {@link #recoverFull}
+     * before appending to it.
+     * 
+     * @param file the segment file
+     * @return the mapped segment
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    static HistorySegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int capacity = (int) Math.min(Integer.MAX_VALUE / RECORD_SIZE, channel.size() / RECORD_SIZE);
+            return new HistorySegment(baseOf(file), capacity, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(SUFFIX) && name.length() > SUFFIX.length()
+                && name.chars().limit(name.length() - SUFFIX.length()).allMatch(Character::isDigit);
+    }
+    
+    static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+    
+    private static String fileName(long base) {
+        return String.format("%020d%s", base, SUFFIX);
+    }
+    
+    long base() {
+        return base;
+    }
+    
+    int capacity() {
+        return capacity;
+    }
+    
+    /**
+     * Get the position the next append will be written to.
+     * 
+     * @return next position
+     */
+    long end() {
+        return base + count;
+    }
+    
+    boolean isFull() {
+        return count >= capacity;
+    }
+    
+    /**
+     * Read records from the start until the first unwritten or damaged slot, and
+     * continue appending after the last good one.
+     * 
+     * @param action called with each good record and its position
+     * @return number of good records
+     */
+    int recover(ObjLongConsumer<HistoryRecord> action) {
+        count = 0;
+        while (count < capacity) {
+            HistoryRecord record = decode(count);
+            if (record == null) {
+                break;
+            }
+            action.accept(record, base + count);
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Treat every slot as written without reading any, for a segment that was
+     * full when a checkpoint covering it was taken.
+     * 
+     * @return number of records
+     */
+    int recoverFull() {
+        count = capacity;
+        return count;
+    }
+    
+    /**
+     * Write a record to the next free slot.
+     * 
+     * @param record the record, with its previous positions set
+     * @return the record's position
+     */
+    long append(HistoryRecord record) {
+        if (isFull()) {
+            throw new IllegalStateException("History segment " + base + " is full");
+        }
+        scratch.clear();
+        scratch.putLong(TIMESTAMP, record.timestamp)
+                .putLong(SUBSCRIPTION_ID, record.subscriptionId)
+                .putLong(USER_ID, record.userId)
+                .putLong(TIER_ID, record.tierId)
+                .putLong(END_DATE, record.endDate != null ? toMillis(record.endDate) : NO_END_DATE)
+                .putLong(PREVIOUS_FOR_SUBSCRIPTION, record.previousForSubscription)
+                .putLong(PREVIOUS_FOR_USER, record.previousForUser)
+                .putInt(EVENT, record.event.ordinal() + 1);
+        crc.reset();
+        crc.update(scratch.array(), 0, CHECKSUM);
+        scratch.putInt(CHECKSUM, (int) crc.getValue());
+        
+        buffer.put(count * RECORD_SIZE, scratch.array());
+        return base + count++;
+    }
+    
+    /**
+     * Read the record at a position.
+     * 
+     * @param position the record position
+     * @return the record, or null if the position is outside this segment,
+     *         unwritten or damaged
+     */
+    HistoryRecord read(long position) {
+        long slot = position - base;
+        if (slot < 0 || slot >= capacity) {
+            return null;
+        }
+        return decode((int) slot);
+    }
+    
+    /**
+     * Write modified pages to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+    
+    void close() throws IOException {
+        channel.close();
+    }
+    
+    private HistoryRecord decode(int slot) {
+        byte[] bytes = new byte[RECORD_SIZE];
+        buffer.get(slot * RECORD_SIZE, bytes);
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+        int event = record.getInt(EVENT);
+        if (event < 1 || event > EVENTS.length) {
+            return null;
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, CHECKSUM);
+        if ((int) checksum.getValue() != record.getInt(CHECKSUM)) {
+            return null;
+        }
+        
+        long endDate = record.getLong(END_DATE);
+        HistoryRecord decoded = new HistoryRecord(EVENTS[event - 1], record.getLong(TIMESTAMP),
+                record.getLong(SUBSCRIPTION_ID), record.getLong(USER_ID), record.getLong(TIER_ID),
+                endDate != NO_END_DATE ? fromMillis(endDate) : null);
+        decoded.previousForSubscription = record.getLong(PREVIOUS_FOR_SUBSCRIPTION);
+        decoded.previousForUser = record.getLong(PREVIOUS_FOR_USER);
+        return decoded;
+    }
+    
+    // End dates are local wall-clock times, as in the database, so they are stored
+    // against UTC without applying the system zone
+    private static long toMillis(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+    }
+    
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+}
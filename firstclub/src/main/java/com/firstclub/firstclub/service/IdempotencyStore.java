@@ -0,0 +1,157 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.IdempotencyProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded store of results by client-supplied idempotency key, so a retried
+ * write returns the original result instead of running again.
+ * 
+ * Each key is stored with a fingerprint of the request that first used it; a
+ * request reusing the key for anything else is rejected. The first request runs
+ * the action on its own thread, and concurrent duplicates wait on its result,
+ * up to the in-flight timeout, rather than racing it. While the first request
+ * runs, its entry weighs nothing and never expires, so neither the size bound nor
+ * the TTL can drop it and let a duplicate run the action again. Successful
+ * results are then kept until the entry expires or is evicted. A failure,
+ * including an error, is passed to the requests waiting on it and then
+ * forgotten, so a later retry runs again.
+ */
+@Component
+public class IdempotencyStore {
+    
+    private final IdempotencyProperties properties;
+    private final Cache<String, Entry> entries;
+    
+    public IdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        long ttlNanos = properties.getTtl().toNanos();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize())
+                .weigher((String key, Entry entry) -> entry.result.isDone() ? 1 : 0)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.result.isDone() ? ttlNanos : Long.MAX_VALUE;
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.result.isDone() ? ttlNanos : Long.MAX_VALUE;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotencyKeys");
+    }
+    
+    /**
+     * Run an action once per key. Without a key the action simply runs.
+     * 
+     * @param key the client's idempotency key, or null
+     * @param fingerprint identifies the operation and its parameters
+     * @param action performs the write and returns its result
+     * @return the result of the first request with this key
+     * @throws KeyReusedException if the key was first used for a different request
+     * @throws InProgressException if the first request with the key did not finish
+     *         within the in-flight timeout
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String fingerprint, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (!StringUtils.hasText(key) || key.length() > properties.getMaxKeyLength()) {
+            throw new RuntimeException("Idempotency key must be 1 to " + properties.getMaxKeyLength()
+                    + " characters");
+        }
+        
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new KeyReusedException("Idempotency key was already used for a different request");
+            }
+            return (T) await(existing.result);
+        }
+        
+        try {
+            T result = action.get();
+            entry.result.complete(result);
+            // Re-put the entry so it is weighed and given its TTL now that it is done
+            entries.asMap().replace(key, entry, entry);
+            return result;
+        } catch (Throwable e) {
+            entries.asMap().remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get(properties.getInFlightTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new InProgressException("A request with this idempotency key is still in progress, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InProgressException("Interrupted while waiting for the request with this idempotency key");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+    
+    private static final class Entry {
+        
+        private final String fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+    
+    /**
+     * Thrown when a duplicate gives up waiting for the first request with its key.
+     */
+    public static class InProgressException extends RuntimeException {
+        
+        public InProgressException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * Thrown when an idempotency key is sent with a request other than the one it
+     * was first used for.
+     */
+    public static class KeyReusedException extends RuntimeException {
+        
+        public KeyReusedException(String message) {
+            super(message);
+        }
+    }
+}
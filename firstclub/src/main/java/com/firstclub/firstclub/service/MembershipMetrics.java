@@ -0,0 +1,69 @@
+package com.firstclub.firstclub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business counters for subscription lifecycle events, tagged by plan and tier.
+ */
+@Component
+@RequiredArgsConstructor
+public class MembershipMetrics {
+    
+    private static final String SUBSCRIPTIONS = "firstclub.subscriptions";
+    
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * Count a newly created subscription.
+     * 
+     * @param plan the plan name
+     * @param tier the tier name
+     */
+    public void subscriptionCreated(String plan, String tier) {
+        increment("created", plan, tier, 1);
+    }
+    
+    /**
+     * Count a cancelled subscription.
+     * 
+     * @param plan the plan name
+     * @param tier the tier name at cancellation
+     */
+    public void subscriptionCancelled(String plan, String tier) {
+        increment("cancelled", plan, tier, 1);
+    }
+    
+    /**
+     * Count a renewal, tagged with the subscription being replaced.
+     * 
+     * @param plan the plan name
+     * @param tier the tier name of the renewed subscription
+     */
+    public void subscriptionRenewed(String plan, String tier) {
+        increment("renewed", plan, tier, 1);
+    }
+    
+    /**
+     * Count subscriptions expired together, e.g. by one expiry sweep chunk.
+     * 
+     * @param plan the plan name
+     * @param tier the tier name
+     * @param count number of subscriptions expired
+     */
+    public void subscriptionsExpired(String plan, String tier, long count) {
+        increment("expired", plan, tier, count);
+    }
+    
+    private void increment(String event, String plan, String tier, long amount) {
+        Counter.builder(SUBSCRIPTIONS)
+                .description("Subscription lifecycle events")
+                .tag("event", event)
+                .tag("plan", plan != null ? plan : "unknown")
+                .tag("tier", tier != null ? tier : "unknown")
+                .register(meterRegistry)
+                .increment(amount);
+    }
+}
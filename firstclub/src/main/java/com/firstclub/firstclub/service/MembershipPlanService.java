@@ -1,9 +1,12 @@
 package com.firstclub.firstclub.service;
 
+import com.firstclub.firstclub.dto.CursorPage;
 import com.firstclub.firstclub.dto.MembershipPlanDTO;
 import com.firstclub.firstclub.model.MembershipPlan;
 import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,9 +18,11 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "firstclub.service", histogram = true)
 public class MembershipPlanService {
     
     private final MembershipPlanRepository planRepository;
+    private final CatalogVersion catalogVersion;
     
     /**
      * Create a new membership plan.
@@ -36,6 +41,7 @@ public class MembershipPlanService {
         plan.setActive(planDTO.getActive() != null ? planDTO.getActive() : true);
         
         MembershipPlan savedPlan = planRepository.save(plan);
+        catalogVersion.advanceAfterCommit();
         return convertToDTO(savedPlan);
     }
     
@@ -45,6 +51,7 @@ public class MembershipPlanService {
      * @param id the plan ID
      * @return plan DTO
      */
+    @Transactional(readOnly = true)
     public MembershipPlanDTO getPlanById(Long id) {
         MembershipPlan plan = planRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Plan not found with id: " + id));
@@ -52,14 +59,18 @@ public class MembershipPlanService {
     }
     
     /**
-     * Get all plans.
+     * Get all plans, one page at a time.
      * 
-     * @return list of plan DTOs
+     * @param cursor continuation token from the previous page, or null for the first page
+     * @param limit maximum number of items to return
+     * @return page of plan DTOs ordered by id
      */
-    public List<MembershipPlanDTO> getAllPlans() {
-        return planRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<MembershipPlanDTO> getAllPlans(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<MembershipPlan> rows = planRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, MembershipPlan::getId, this::convertToDTO);
     }
     
     /**
@@ -67,10 +78,11 @@ public class MembershipPlanService {
      * 
      * @return list of active plan DTOs
      */
+    @Transactional(readOnly = true)
     public List<MembershipPlanDTO> getActivePlans() {
-        return planRepository.findByActiveTrue().stream()
+        return catalogVersion.read(() -> planRepository.findByActiveTrue().stream()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -95,6 +107,7 @@ public class MembershipPlanService {
         }
         
         MembershipPlan updatedPlan = planRepository.save(plan);
+        catalogVersion.advanceAfterCommit();
         return convertToDTO(updatedPlan);
     }
     
@@ -109,6 +122,7 @@ public class MembershipPlanService {
             throw new RuntimeException("Plan not found with id: " + id);
         }
         planRepository.deleteById(id);
+        catalogVersion.advanceAfterCommit();
     }
     
     /**
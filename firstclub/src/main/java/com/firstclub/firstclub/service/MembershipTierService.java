@@ -1,11 +1,14 @@
 package com.firstclub.firstclub.service;
 
+import com.firstclub.firstclub.dto.CursorPage;
 import com.firstclub.firstclub.dto.MembershipTierDTO;
 import com.firstclub.firstclub.model.MembershipTier;
 import com.firstclub.firstclub.model.User;
 import com.firstclub.firstclub.repository.MembershipTierRepository;
 import com.firstclub.firstclub.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,10 +20,14 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "firstclub.service", histogram = true)
 public class MembershipTierService {
     
     private final MembershipTierRepository tierRepository;
     private final UserRepository userRepository;
+    private final TierEligibilityIndex tierEligibilityIndex;
+    private final EntitlementCatalog entitlementCatalog;
+    private final CatalogVersion catalogVersion;
     
     /**
      * Create a new membership tier.
@@ -43,6 +50,9 @@ public class MembershipTierService {
         tier.setActive(tierDTO.getActive() != null ? tierDTO.getActive() : true);
         
         MembershipTier savedTier = tierRepository.save(tier);
+        tierEligibilityIndex.rebuildAfterCommit();
+        entitlementCatalog.rebuildAfterCommit();
+        catalogVersion.advanceAfterCommit();
         return convertToDTO(savedTier);
     }
     
@@ -52,6 +62,7 @@ public class MembershipTierService {
      * @param id the tier ID
      * @return tier DTO
      */
+    @Transactional(readOnly = true)
     public MembershipTierDTO getTierById(Long id) {
         MembershipTier tier = tierRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Tier not found with id: " + id));
@@ -59,14 +70,18 @@ public class MembershipTierService {
     }
     
     /**
-     * Get all tiers.
+     * Get all tiers, one page at a time.
      * 
-     * @return list of tier DTOs
+     * @param cursor continuation token from the previous page, or null for the first page
+     * @param limit maximum number of items to return
+     * @return page of tier DTOs ordered by id
      */
-    public List<MembershipTierDTO> getAllTiers() {
-        return tierRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<MembershipTierDTO> getAllTiers(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<MembershipTier> rows = tierRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, MembershipTier::getId, this::convertToDTO);
     }
     
     /**
@@ -74,10 +89,11 @@ public class MembershipTierService {
      * 
      * @return list of active tier DTOs
      */
+    @Transactional(readOnly = true)
     public List<MembershipTierDTO> getActiveTiers() {
-        return tierRepository.findByActiveTrue().stream()
+        return catalogVersion.read(() -> tierRepository.findByActiveTrue().stream()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -86,23 +102,16 @@ public class MembershipTierService {
      * @param userId the user ID
      * @return eligible tier DTO
      */
+    @Transactional(readOnly = true)
     public MembershipTierDTO calculateEligibleTier(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         
-        List<MembershipTier> eligibleTiers = tierRepository.findEligibleTiers(
-                user.getTotalOrderCount(), 
+        MembershipTier tier = tierEligibilityIndex.findBestTier(
+                user.getTotalOrderCount(),
                 user.getTotalOrderValue()
         );
-        
-        if (eligibleTiers.isEmpty()) {
-            // Return default Silver tier if no tier matches
-            return tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER)
-                    .map(this::convertToDTO)
-                    .orElseThrow(() -> new RuntimeException("Default tier not found"));
-        }
-        
-        return convertToDTO(eligibleTiers.get(0));
+        return convertToDTO(tier);
     }
     
     /**
@@ -131,6 +140,9 @@ public class MembershipTierService {
         }
         
         MembershipTier updatedTier = tierRepository.save(tier);
+        tierEligibilityIndex.rebuildAfterCommit();
+        entitlementCatalog.rebuildAfterCommit();
+        catalogVersion.advanceAfterCommit();
         return convertToDTO(updatedTier);
     }
     
@@ -145,6 +157,9 @@ public class MembershipTierService {
             throw new RuntimeException("Tier not found with id: " + id);
         }
         tierRepository.deleteById(id);
+        tierEligibilityIndex.rebuildAfterCommit();
+        entitlementCatalog.rebuildAfterCommit();
+        catalogVersion.advanceAfterCommit();
     }
     
     /**
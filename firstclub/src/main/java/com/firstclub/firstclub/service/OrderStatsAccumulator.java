@@ -0,0 +1,307 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.OrderStatsProperties;
+import com.firstclub.firstclub.config.ReadWriteRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Buffers per-user order count and value increments in memory and writes them
+ * to the users table as relative updates.
+ * 
+ * Writers only touch a striped in-memory map, so concurrent orders for the same
+ * user neither lose updates nor contend on the database row. A periodic flush
+ * swaps each stripe's map out and applies the accumulated deltas as one JDBC
+ * batch of {@code total = total + ?} updates. If a batch fails, its rows are
+ * retried one at a time: rows that fail for a transient reason are put back for
+ * the next flush, and rows the database rejects outright are dropped and logged,
+ * so one bad row cannot hold back the rest of its stripe.
+ * 
+ * Orders are only buffered for users known to exist, checked once per user
+ * against the primary and remembered in a bounded cache; a user deleted after
+ * that check may lose a buffered order. Users whose totals were written
+ * are recorded as recent writes, so their reads go to the primary while a
+ * replica may lag, and are then handed to {@link TierReevaluationPipeline}.
+ */
+@Slf4j
+@Component
+public class OrderStatsAccumulator {
+    
+    private static final String INCREMENT_SQL = "UPDATE users SET " +
+            "total_order_count = COALESCE(total_order_count, 0) + ?, " +
+            "total_order_value = COALESCE(total_order_value, 0) + ?, " +
+            "updated_at = ? WHERE id = ?";
+    
+    private static final String USER_EXISTS_SQL = "SELECT COUNT(*) FROM users WHERE id = ?";
+    
+    private static final long MAXIMUM_KNOWN_USERS = 100_000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderStatsProperties properties;
+    private final TierReevaluationPipeline tierReevaluationPipeline;
+    private final RecentWriteTracker recentWriteTracker;
+    private final Stripe[] stripes;
+    private final Cache<Long, Boolean> knownUsers = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_KNOWN_USERS)
+            .build();
+    
+    OrderStatsAccumulator(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          OrderStatsProperties properties,
+                          TierReevaluationPipeline tierReevaluationPipeline,
+                          RecentWriteTracker recentWriteTracker) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.tierReevaluationPipeline = tierReevaluationPipeline;
+        this.recentWriteTracker = recentWriteTracker;
+        this.stripes = new Stripe[Math.max(1, properties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+    
+    /**
+     * Record one order for a user. The increment becomes visible in the database
+     * on the next flush.
+     * 
+     * @param userId the user ID
+     * @param orderValue the order value
+     * @return false if the user does not exist, in which case nothing is recorded
+     */
+    public boolean record(long userId, long orderValue) {
+        if (!exists(userId)) {
+            return false;
+        }
+        stripeFor(userId).add(userId, 1, orderValue);
+        return true;
+    }
+    
+    /**
+     * Forget that a user exists, so later orders for it are rejected.
+     * 
+     * @param userId the deleted user's ID
+     */
+    public void forget(long userId) {
+        knownUsers.invalidate(userId);
+    }
+    
+    /**
+     * Write one order for a user immediately, together with the user's pending
+     * increments. Waits for any flush of the user's stripe that is in flight, so
+     * the user's earlier orders are in the database when this returns. If the
+     * write fails, only the earlier increments are put back; this order is not
+     * applied, so the caller can report the failure and a retry counts it once.
+     * 
+     * @param userId the user ID
+     * @param orderValue the order value
+     * @return false if the user does not exist
+     */
+    public boolean recordAndFlush(long userId, long orderValue) {
+        Stripe stripe = stripeFor(userId);
+        stripe.flushLock.lock();
+        try {
+            Delta earlier = stripe.drain(userId);
+            Delta delta = new Delta();
+            delta.count.add(1);
+            delta.value.add(orderValue);
+            if (earlier != null) {
+                delta.count.add(earlier.count.sum());
+                delta.value.add(earlier.value.sum());
+            }
+            try {
+                return apply(Map.of(userId, delta)) > 0;
+            } catch (RuntimeException e) {
+                log.error("Failed to write order stats for user {}", userId, e);
+                if (earlier != null) {
+                    stripe.add(userId, earlier.count.sum(), earlier.value.sum());
+                }
+                throw e;
+            }
+        } finally {
+            stripe.flushLock.unlock();
+        }
+    }
+    
+    /**
+     * Write all pending increments.
+     */
+    @Scheduled(fixedDelayString = "${firstclub.order-stats.flush-interval-ms:1000}")
+    public void flush() {
+        for (Stripe stripe : stripes) {
+            stripe.flushLock.lock();
+            try {
+                Map<Long, Delta> pending = stripe.drainAll();
+                if (pending.isEmpty()) {
+                    continue;
+                }
+                try {
+                    apply(pending);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to flush order stats for {} users, retrying one at a time",
+                            pending.size(), e);
+                    applyIndividually(stripe, pending);
+                }
+            } finally {
+                stripe.flushLock.unlock();
+            }
+        }
+    }
+    
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+    
+    private int apply(Map<Long, Delta> pending) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> userIds = new ArrayList<>(pending.size());
+        List<Object[]> args = new ArrayList<>(pending.size());
+        pending.forEach((userId, delta) -> {
+            userIds.add(userId);
+            args.add(new Object[]{delta.count.sum(), delta.value.sum(), now, userId});
+        });
+        
+        int[][] counts = transactionTemplate.execute(status -> {
+            userIds.forEach(recentWriteTracker::recordAfterCommit);
+            return jdbcTemplate.batchUpdate(
+                    INCREMENT_SQL, args, properties.getBatchSize(),
+                    (ps, row) -> {
+                        ps.setLong(1, (Long) row[0]);
+                        ps.setLong(2, (Long) row[1]);
+                        ps.setTimestamp(3, (Timestamp) row[2]);
+                        ps.setLong(4, (Long) row[3]);
+                    });
+        });
+        int updated = countUpdated(counts, userIds);
+        userIds.forEach(tierReevaluationPipeline::publish);
+        return updated;
+    }
+    
+    private void applyIndividually(Stripe stripe, Map<Long, Delta> pending) {
+        pending.forEach((userId, delta) -> {
+            try {
+                apply(Map.of(userId, delta));
+            } catch (NonTransientDataAccessException e) {
+                if (e instanceof NonTransientDataAccessResourceException) {
+                    stripe.add(userId, delta.count.sum(), delta.value.sum());
+                    return;
+                }
+                // The row itself is rejected, e.g. a total would overflow; retrying cannot help
+                log.error("Dropped order stats for user {} (orders +{}, value +{}): {}",
+                        userId, delta.count.sum(), delta.value.sum(), e.getMessage());
+            } catch (RuntimeException e) {
+                // Put the increments back so the next flush retries them
+                stripe.add(userId, delta.count.sum(), delta.value.sum());
+            }
+        });
+    }
+    
+    private boolean exists(long userId) {
+        if (knownUsers.getIfPresent(userId) != null) {
+            return true;
+        }
+        Integer count = ReadWriteRoutingDataSource.onPrimary(() ->
+                jdbcTemplate.queryForObject(USER_EXISTS_SQL, Integer.class, userId));
+        if (count == null || count == 0) {
+            return false;
+        }
+        knownUsers.put(userId, Boolean.TRUE);
+        return true;
+    }
+    
+    private int countUpdated(int[][] counts, List<Long> userIds) {
+        int updated = 0;
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    log.warn("Dropped order stats for unknown user {}", userIds.get(index));
+                } else {
+                    updated++;
+                }
+                index++;
+            }
+        }
+        return updated;
+    }
+    
+    private Stripe stripeFor(long userId) {
+        return stripes[(int) Math.floorMod(userId, (long) stripes.length)];
+    }
+    
+    private static final class Delta {
+        
+        private final LongAdder count = new LongAdder();
+        private final LongAdder value = new LongAdder();
+    }
+    
+    /**
+     * One shard of the buffer. Writers share the read lock and only contend on
+     * the adders of their own user; a flush takes the write lock just long
+     * enough to swap in an empty map.
+     */
+    private static final class Stripe {
+        
+        /**
+         * Held while the stripe's drained increments are written, so a
+         * write-through waits for an in-flight flush to commit or re-queue.
+         */
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private ConcurrentHashMap<Long, Delta> pending = new ConcurrentHashMap<>();
+        
+        void add(long userId, long count, long value) {
+            lock.readLock().lock();
+            try {
+                Delta delta = pending.computeIfAbsent(userId, id -> new Delta());
+                delta.count.add(count);
+                delta.value.add(value);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        Map<Long, Delta> drainAll() {
+            lock.writeLock().lock();
+            try {
+                if (pending.isEmpty()) {
+                    return Map.of();
+                }
+                Map<Long, Delta> drained = pending;
+                pending = new ConcurrentHashMap<>();
+                return drained;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        Delta drain(long userId) {
+            lock.writeLock().lock();
+            try {
+                return pending.remove(userId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
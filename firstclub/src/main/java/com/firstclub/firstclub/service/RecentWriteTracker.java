@@ -0,0 +1,63 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.ReadWriteRoutingDataSource;
+import com.firstclub.firstclub.config.ReplicaDataSourceProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.function.Supplier;
+
+/**
+ * Remembers which users were written recently so their reads can skip the replica
+ * until replication has had time to catch up.
+ * 
+ * Entries expire after the configured staleness window. Tracking is disabled when
+ * no replica is configured or the window is zero.
+ */
+@Component
+class RecentWriteTracker {
+    
+    private static final long MAXIMUM_TRACKED_USERS = 100_000;
+    
+    private final Cache<Long, Boolean> recentWrites;
+    
+    RecentWriteTracker(ReplicaDataSourceProperties properties) {
+        boolean enabled = StringUtils.hasText(properties.getUrl())
+                && properties.getStalenessWindow().isPositive();
+        this.recentWrites = enabled
+                ? Caffeine.newBuilder()
+                        .maximumSize(MAXIMUM_TRACKED_USERS)
+                        .expireAfterWrite(properties.getStalenessWindow())
+                        .build()
+                : null;
+    }
+    
+    /**
+     * Record a write for a user once the current transaction commits.
+     * 
+     * @param userId the user that was written
+     */
+    void recordAfterCommit(Long userId) {
+        if (recentWrites != null && userId != null) {
+            AfterCommit.run(() -> recentWrites.put(userId, Boolean.TRUE));
+        }
+    }
+    
+    /**
+     * Run a read for a user, on the primary if the user was written within the
+     * staleness window. Must be called before the read's transaction has issued
+     * any statement.
+     * 
+     * @param userId the user being read
+     * @param read the read
+     * @return the read's result
+     */
+    <T> T read(Long userId, Supplier<T> read) {
+        if (recentWrites != null && userId != null && recentWrites.getIfPresent(userId) != null) {
+            return ReadWriteRoutingDataSource.onPrimary(read);
+        }
+        return read.get();
+    }
+}
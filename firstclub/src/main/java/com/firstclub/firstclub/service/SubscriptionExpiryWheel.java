@@ -0,0 +1,181 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.ExpiryWheelProperties;
+import com.firstclub.firstclub.config.ReadWriteRoutingDataSource;
+import com.firstclub.firstclub.dto.ExpiryCandidate;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * End dates of active subscriptions due within the next day or so, held in a
+ * {@link TimingWheel} so {@link ExpirySweepEngine} can expire or renew each one
+ * within seconds of its end date without scanning for them.
+ * 
+ * {@link SubscriptionService} schedules subscriptions it creates or renews and
+ * removes the ones it cancels, after commit. Refills reload upcoming end dates
+ * from the database at startup and on the refill schedule; they pick up
+ * subscriptions that have come within the horizon and any that were missed.
+ */
+@Slf4j
+@Component
+public class SubscriptionExpiryWheel {
+    
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final SubscriptionRepository subscriptionRepository;
+    private final ExpiryWheelProperties properties;
+    private final ZoneId zone = ZoneId.systemDefault();
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel<Long> wheel;
+    
+    SubscriptionExpiryWheel(SubscriptionRepository subscriptionRepository, ExpiryWheelProperties properties) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.properties = properties;
+        this.wheel = new TimingWheel<>(System.currentTimeMillis(), Math.max(2, properties.getHorizonDays()));
+    }
+    
+    /**
+     * Track a subscription's end date once the current transaction commits.
+     * 
+     * @param subscriptionId the subscription ID
+     * @param endDate the subscription's end date
+     */
+    void scheduleAfterCommit(Long subscriptionId, LocalDateTime endDate) {
+        if (properties.isEnabled()) {
+            AfterCommit.run(() -> schedule(subscriptionId, endDate));
+        }
+    }
+    
+    /**
+     * Stop tracking a subscription once the current transaction commits.
+     * 
+     * @param subscriptionId the subscription ID
+     */
+    void cancelAfterCommit(Long subscriptionId) {
+        if (properties.isEnabled()) {
+            AfterCommit.run(() -> {
+                lock.lock();
+                try {
+                    wheel.cancel(subscriptionId);
+                } finally {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+    
+    /**
+     * Remove and return every subscription whose end date has passed. The caller
+     * must re-check each one against the database before acting on it.
+     * 
+     * @param now the current time
+     * @return IDs of due subscriptions
+     */
+    public List<Long> pollDue(LocalDateTime now) {
+        if (!properties.isEnabled()) {
+            return List.of();
+        }
+        lock.lock();
+        try {
+            return wheel.advance(toMillis(now));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Load every active subscription ending within the horizon at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        int loaded = refill();
+        log.info("Expiry wheel loaded {} subscriptions", loaded);
+    }
+    
+    /**
+     * Reload upcoming end dates on the configured schedule.
+     */
+    @Scheduled(cron = "${firstclub.expiry-wheel.refill-cron:0 0 * * * *}")
+    public void scheduledRefill() {
+        int loaded = refill();
+        log.debug("Expiry wheel refilled with {} subscriptions", loaded);
+    }
+    
+    /**
+     * Schedule every active subscription ending within one day less than the
+     * horizon, including overdue ones, reading in keyset order from the primary.
+     * 
+     * @return number of subscriptions scheduled
+     */
+    public int refill() {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        LocalDateTime until = LocalDateTime.now().plusDays(Math.max(2, properties.getHorizonDays()) - 1);
+        int chunkSize = Math.max(1, properties.getRefillChunkSize());
+        LocalDateTime afterEndDate = KEYSET_START;
+        long afterId = 0L;
+        int loaded = 0;
+        
+        while (true) {
+            LocalDateTime keysetEndDate = afterEndDate;
+            long keysetId = afterId;
+            List<ExpiryCandidate> chunk = ReadWriteRoutingDataSource.onPrimary(() ->
+                    subscriptionRepository.findExpiringSoon(Subscription.SubscriptionStatus.ACTIVE, until,
+                            keysetEndDate, keysetId, Limit.of(chunkSize)));
+            for (ExpiryCandidate candidate : chunk) {
+                if (schedule(candidate.getId(), candidate.getEndDate())) {
+                    loaded++;
+                }
+            }
+            if (chunk.size() < chunkSize) {
+                return loaded;
+            }
+            ExpiryCandidate last = chunk.get(chunk.size() - 1);
+            afterEndDate = last.getEndDate();
+            afterId = last.getId();
+        }
+    }
+    
+    /**
+     * Get the number of subscriptions being tracked.
+     * 
+     * @return tracked subscriptions
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private boolean schedule(Long subscriptionId, LocalDateTime endDate) {
+        if (subscriptionId == null || endDate == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return wheel.schedule(subscriptionId, toMillis(endDate));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+}
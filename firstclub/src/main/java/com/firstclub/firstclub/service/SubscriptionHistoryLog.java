@@ -0,0 +1,568 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.HistoryLogProperties;
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
+import com.firstclub.firstclub.model.Subscription;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only history of subscription changes, written behind the request path
+ * to memory-mapped {@link HistorySegment} files.
+ * 
+ * Recording an event only queues it, so a request pays for an allocation and a
+ * short enqueue. A single writer thread, blocked on the queue while it is empty,
+ * appends queued events to the current segment and starts a new one when it is
+ * full. Every record links back to the
+ * previous record for its subscription and for its user, so the only index kept
+ * in memory is the position of the latest record per subscription and per user,
+ * in two open-addressing tables of primitive longs. Queries walk the links
+ * backwards through the mapped files.
+ * 
+ * When a segment fills it is forced to disk and sealed, and the two tables are
+ * saved in a {@link HistoryCheckpoint}. On startup the tables are loaded from the
+ * latest checkpoint and only the segments after it, normally just the active one,
+ * are scanned, stopping at the first empty or damaged record; without a usable
+ * checkpoint every segment is scanned. Mapped pages survive a crash of the
+ * process and are also forced on shutdown.
+ * History is eventually consistent: an event is visible to queries once the
+ * writer has caught up, normally within a millisecond or two.
+ */
+@Slf4j
+@Component
+public class SubscriptionHistoryLog {
+    
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final long FLUSH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final String LOCK_FILE = ".lock";
+    
+    /**
+     * Queued in place of an event by {@link #close()} to stop the writer.
+     */
+    private static final HistoryRecord CLOSE =
+            new HistoryRecord(SubscriptionHistoryDTO.Event.CREATED, 0, 0, 0, 0, null);
+    
+    private final HistoryLogProperties properties;
+    private final ZoneId zone = ZoneId.systemDefault();
+    
+    // Unbounded; the capacity is enforced by comparing accepted and written counts
+    private final LinkedBlockingQueue<HistoryRecord> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long written;
+    private volatile boolean closed;
+    
+    private final ConcurrentSkipListMap<Long, HistorySegment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private PositionIndex subscriptionHeads = new PositionIndex();
+    private PositionIndex userHeads = new PositionIndex();
+    
+    private final boolean enabled;
+    private final Thread writer;
+    private Path directory;
+    private FileChannel lockChannel;
+    private FileLock fileLock;
+    private HistorySegment active;
+    private int segmentCapacity;
+    private long scannedOnRecovery;
+    
+    /**
+     * Open the log directory, recover existing segments and start the writer.
+     * If the directory cannot be opened or is locked by another process, the log
+     * runs disabled: events are ignored and queries fail.
+     * 
+     * @param properties log settings
+     */
+    public SubscriptionHistoryLog(HistoryLogProperties properties) {
+        this.properties = properties;
+        this.enabled = properties.isEnabled() && open();
+        this.writer = enabled
+                ? Thread.ofPlatform().name("history-writer").daemon(true).start(this::drain)
+                : null;
+    }
+    
+    /**
+     * Queue an event. Returns immediately; the event is dropped and counted if
+     * the queue is full.
+     * 
+     * @param event the kind of change
+     * @param subscriptionId the subscription ID
+     * @param userId the subscription's user ID
+     * @param tierId the subscription's tier ID after the change, or null if unknown
+     * @param endDate the subscription's end date after the change
+     */
+    public void record(SubscriptionHistoryDTO.Event event, long subscriptionId, long userId, Long tierId,
+                       LocalDateTime endDate) {
+        if (!enabled || closed) {
+            return;
+        }
+        if (accepted.get() - written >= properties.getQueueCapacity()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        accepted.incrementAndGet();
+        queue.offer(new HistoryRecord(event, System.currentTimeMillis(), subscriptionId, userId,
+                tierId != null ? tierId : 0, endDate));
+    }
+    
+    /**
+     * Queue an event for a subscription's current state once the current
+     * transaction commits.
+     * 
+     * @param event the kind of change
+     * @param subscription the subscription, with its user and tier loaded
+     */
+    void recordAfterCommit(SubscriptionHistoryDTO.Event event, Subscription subscription) {
+        recordAfterCommit(event, subscription.getId(), subscription.getUser().getId(),
+                subscription.getTier() != null ? subscription.getTier().getId() : null, subscription.getEndDate());
+    }
+    
+    /**
+     * Queue an event once the current transaction commits.
+     * 
+     * @param event the kind of change
+     * @param subscriptionId the subscription ID
+     * @param userId the subscription's user ID
+     * @param tierId the subscription's tier ID after the change, or null if unknown
+     * @param endDate the subscription's end date after the change
+     */
+    void recordAfterCommit(SubscriptionHistoryDTO.Event event, Long subscriptionId, Long userId, Long tierId,
+                           LocalDateTime endDate) {
+        if (enabled && subscriptionId != null && userId != null) {
+            AfterCommit.run(() -> record(event, subscriptionId, userId, tierId, endDate));
+        }
+    }
+    
+    /**
+     * Get the most recent events for a subscription.
+     * 
+     * @param subscriptionId the subscription ID
+     * @param limit maximum number of events to return
+     * @return events, oldest first
+     */
+    public List<SubscriptionHistoryDTO> getSubscriptionHistory(Long subscriptionId, Integer limit) {
+        return history(subscriptionId, limit, true);
+    }
+    
+    /**
+     * Get the most recent events for all of a user's subscriptions.
+     * 
+     * @param userId the user ID
+     * @param limit maximum number of events to return
+     * @return events, oldest first
+     */
+    public List<SubscriptionHistoryDTO> getUserHistory(Long userId, Integer limit) {
+        return history(userId, limit, false);
+    }
+    
+    /**
+     * Wait until every event queued before this call has been written.
+     * 
+     * @param timeoutMillis maximum time to wait, in milliseconds
+     * @return false if the writer did not catch up in time
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = accepted.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (enabled && written < target) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(FLUSH_PARK_NANOS);
+        }
+        return true;
+    }
+    
+    /**
+     * Get the number of events dropped because the queue was full.
+     * 
+     * @return dropped events
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+    
+    /**
+     * Get the number of records read from segments at startup, which excludes
+     * the ones covered by a checkpoint.
+     * 
+     * @return records scanned
+     */
+    long getScannedOnRecovery() {
+        return scannedOnRecovery;
+    }
+    
+    /**
+     * Write the remaining queued events, force the segments to disk and release
+     * the directory.
+     */
+    @PreDestroy
+    public void close() {
+        if (!enabled || closed) {
+            return;
+        }
+        closed = true;
+        queue.offer(CLOSE);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (HistorySegment segment : segments.values()) {
+            try {
+                segment.force();
+                segment.close();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to close history segment {}: {}", segment.base(), e.getMessage());
+            }
+        }
+        releaseLock();
+    }
+    
+    private boolean open() {
+        try {
+            directory = Path.of(properties.getDirectory());
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            fileLock = lockChannel.tryLock();
+            if (fileLock == null) {
+                log.warn("History log directory {} is locked by another process; history is disabled", directory);
+                releaseLock();
+                return false;
+            }
+            long bytes = Math.min(MAX_SEGMENT_BYTES, properties.getSegmentSize().toBytes());
+            segmentCapacity = (int) Math.max(1, bytes / HistorySegment.RECORD_SIZE);
+            recover();
+            return true;
+        } catch (IOException | OverlappingFileLockException e) {
+            log.warn("Failed to open history log directory {}; history is disabled: {}", directory, e.toString());
+            segments.values().forEach(this::closeQuietly);
+            segments.clear();
+            releaseLock();
+            return false;
+        }
+    }
+    
+    private void recover() throws IOException {
+        long started = System.nanoTime();
+        List<Path> files;
+        List<Path> checkpoints;
+        try (Stream<Path> listing = Files.list(directory)) {
+            List<Path> all = listing.toList();
+            files = all.stream()
+                    .filter(HistorySegment::isSegment)
+                    .sorted(Comparator.comparingLong(HistorySegment::baseOf))
+                    .toList();
+            checkpoints = all.stream()
+                    .filter(HistoryCheckpoint::isCheckpoint)
+                    .sorted(Comparator.comparingLong(HistoryCheckpoint::endOf).reversed())
+                    .toList();
+        }
+        
+        for (Path file : files) {
+            if (Files.size(file) < HistorySegment.RECORD_SIZE) {
+                // Created but never mapped before a crash
+                Files.delete(file);
+                continue;
+            }
+            HistorySegment segment = HistorySegment.open(file);
+            segments.put(segment.base(), segment);
+        }
+        
+        long checkpointEnd = loadCheckpoint(checkpoints);
+        long records = 0;
+        for (HistorySegment segment : segments.values()) {
+            if (segment.base() < checkpointEnd) {
+                records += segment.recoverFull();
+                continue;
+            }
+            int scanned = segment.recover((record, position) -> {
+                subscriptionHeads.put(record.subscriptionId, position);
+                userHeads.put(record.userId, position);
+            });
+            records += scanned;
+            scannedOnRecovery += scanned;
+        }
+        
+        if (segments.isEmpty()) {
+            active = HistorySegment.create(directory, 0, segmentCapacity);
+            segments.put(active.base(), active);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        log.info("History log recovered {} events from {} segments in {} ms, scanning {}", records, segments.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), scannedOnRecovery);
+    }
+    
+    /**
+     * Load the tables from the latest usable checkpoint, one whose end is the end
+     * of a segment that is still present, with every segment before it present.
+     * 
+     * @param checkpoints checkpoint files, latest first
+     * @return end of the loaded checkpoint, or 0 if none was usable
+     */
+    private long loadCheckpoint(List<Path> checkpoints) {
+        for (Path file : checkpoints) {
+            long end = HistoryCheckpoint.endOf(file);
+            if (!coversWholeSegments(end)) {
+                continue;
+            }
+            PositionIndex subscriptions = new PositionIndex();
+            PositionIndex users = new PositionIndex();
+            if (HistoryCheckpoint.read(file, subscriptions, users)) {
+                subscriptionHeads = subscriptions;
+                userHeads = users;
+                return end;
+            }
+            log.warn("Ignoring damaged history checkpoint {}", file.getFileName());
+        }
+        return 0;
+    }
+    
+    private boolean coversWholeSegments(long end) {
+        long expectedBase = 0;
+        for (HistorySegment segment : segments.headMap(end).values()) {
+            if (segment.base() != expectedBase) {
+                return false;
+            }
+            expectedBase = segment.base() + segment.capacity();
+        }
+        return expectedBase == end && end > 0;
+    }
+    
+    private void drain() {
+        long reportedDrops = 0;
+        while (true) {
+            HistoryRecord record = queue.poll();
+            if (record == null) {
+                long drops = dropped.get();
+                if (drops != reportedDrops) {
+                    log.warn("History log queue full; {} events dropped", drops - reportedDrops);
+                    reportedDrops = drops;
+                }
+                try {
+                    record = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            if (record == CLOSE) {
+                return;
+            }
+            try {
+                write(record);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to write {} history event for subscription {}",
+                        record.event, record.subscriptionId, e);
+            }
+            written = written + 1;
+        }
+    }
+    
+    private void write(HistoryRecord record) throws IOException {
+        if (active.isFull()) {
+            HistorySegment full = active;
+            full.force();
+            checkpoint(full.end());
+            active = HistorySegment.create(directory, full.end(), segmentCapacity);
+            segments.put(active.base(), active);
+        }
+        // Only this thread changes the tables, so it can read them without the lock
+        record.previousForSubscription = subscriptionHeads.get(record.subscriptionId);
+        record.previousForUser = userHeads.get(record.userId);
+        long position = active.append(record);
+        
+        indexLock.lock();
+        try {
+            subscriptionHeads.put(record.subscriptionId, position);
+            userHeads.put(record.userId, position);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+    
+    private void checkpoint(long end) {
+        try {
+            Path file = HistoryCheckpoint.write(directory, end, subscriptionHeads, userHeads);
+            try (Stream<Path> listing = Files.list(directory)) {
+                for (Path older : listing.filter(HistoryCheckpoint::isCheckpoint).toList()) {
+                    if (!older.equals(file)) {
+                        Files.deleteIfExists(older);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Recovery falls back to an earlier checkpoint or a full scan
+            log.warn("Failed to write history checkpoint at position {}: {}", end, e.toString());
+        }
+    }
+    
+    private List<SubscriptionHistoryDTO> history(Long id, Integer limit, boolean bySubscription) {
+        if (!enabled) {
+            throw new RuntimeException("Subscription history is not available");
+        }
+        int max = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(1, limit), MAX_LIMIT);
+        long position;
+        indexLock.lock();
+        try {
+            position = (bySubscription ? subscriptionHeads : userHeads).get(id);
+        } finally {
+            indexLock.unlock();
+        }
+        
+        List<SubscriptionHistoryDTO> history = new ArrayList<>();
+        while (position != HistoryRecord.NONE && history.size() < max) {
+            HistoryRecord record = read(position);
+            if (record == null || (bySubscription ? record.subscriptionId : record.userId) != id) {
+                // Damaged or lost in a crash; nothing older can be reached
+                break;
+            }
+            history.add(record.toDTO(zone));
+            position = bySubscription ? record.previousForSubscription : record.previousForUser;
+        }
+        Collections.reverse(history);
+        return history;
+    }
+    
+    private HistoryRecord read(long position) {
+        Map.Entry<Long, HistorySegment> segment = segments.floorEntry(position);
+        return segment != null ? segment.getValue().read(position) : null;
+    }
+    
+    private void closeQuietly(HistorySegment segment) {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.debug("Failed to close history segment {}: {}", segment.base(), e.getMessage());
+        }
+    }
+    
+    private void releaseLock() {
+        try {
+            if (fileLock != null) {
+                fileLock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to release history log lock: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Open-addressing table from a positive ID to the position of its latest
+     * record. Single writer; readers must hold the index lock.
+     */
+    static final class PositionIndex {
+        
+        private long[] keys = new long[1024];
+        private long[] positions = new long[1024];
+        private int size;
+        
+        long get(long key) {
+            if (key <= 0) {
+                return HistoryRecord.NONE;
+            }
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return positions[slot];
+                }
+                if (keys[slot] == 0) {
+                    return HistoryRecord.NONE;
+                }
+            }
+        }
+        
+        void put(long key, long position) {
+            if (key <= 0) {
+                return;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            if (insert(keys, positions, key, position)) {
+                size++;
+            }
+        }
+        
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0) {
+                    out.writeLong(keys[slot]);
+                    out.writeLong(positions[slot]);
+                }
+            }
+        }
+        
+        void readFrom(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                put(in.readLong(), in.readLong());
+            }
+        }
+        
+        private void resize() {
+            long[] newKeys = new long[keys.length * 2];
+            long[] newPositions = new long[positions.length * 2];
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0) {
+                    insert(newKeys, newPositions, keys[slot], positions[slot]);
+                }
+            }
+            keys = newKeys;
+            positions = newPositions;
+        }
+        
+        private static boolean insert(long[] keys, long[] positions, long key, long position) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    positions[slot] = position;
+                    return false;
+                }
+                if (keys[slot] == 0) {
+                    keys[slot] = key;
+                    positions[slot] = position;
+                    return true;
+                }
+            }
+        }
+        
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renews many due subscriptions at once.
+ * 
+ * Each chunk runs in one transaction: the due rows are loaded with their users,
+ * plans and tiers in a single query, successor tiers come from
+ * {@link TierEligibilityIndex}, the old rows are expired with one set-based update,
+ * and the successors are inserted in JDBC batches. The expiry frees each user's
+ * one-active-subscription slot before the inserts flush. If the update touches
+ * fewer rows than were loaded, because a subscription was cancelled or renewed
+ * concurrently, or an insert fails, the chunk is rolled back and its
+ * subscriptions are retried one per transaction.
+ * 
+ * A due subscription whose plan has been deactivated cannot be renewed, so it is
+ * expired by the same update without a successor.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubscriptionRenewalEngine {
+    
+    static final int CHUNK_SIZE = 500;
+    
+    private final SubscriptionRepository subscriptionRepository;
+    private final TierEligibilityIndex tierEligibilityIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ActiveSubscriptionCache activeSubscriptionCache;
+    private final MembershipMetrics membershipMetrics;
+    private final RecentWriteTracker recentWriteTracker;
+    private final SubscriptionExpiryWheel expiryWheel;
+    private final SubscriptionHistoryLog historyLog;
+    
+    /**
+     * Expire the given subscriptions and start a successor for each. Subscriptions
+     * that are no longer active are skipped; ones whose plan has been deactivated
+     * are expired without a successor.
+     * 
+     * @param subscriptionIds IDs of the subscriptions to renew
+     * @return counts for the renewal
+     */
+    public RenewalResult renew(Collection<Long> subscriptionIds) {
+        RenewalResult result = new RenewalResult();
+        List<Long> ids = new ArrayList<>(subscriptionIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            try {
+                renewChunk(chunk, result);
+            } catch (RuntimeException e) {
+                log.debug("Renewal chunk of {} failed, retrying individually: {}", chunk.size(), e.getMessage());
+                for (Long id : chunk) {
+                    try {
+                        renewChunk(List.of(id), result);
+                    } catch (RuntimeException single) {
+                        log.warn("Failed to renew subscription {}: {}", id, single.getMessage());
+                        result.failed.incrementAndGet();
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    
+    private void renewChunk(List<Long> ids, RenewalResult result) {
+        Counts counts = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Subscription> due = subscriptionRepository.findWithAssociationsByIdInAndStatus(
+                    ids, Subscription.SubscriptionStatus.ACTIVE);
+            
+            if (due.isEmpty()) {
+                return new Counts(0, 0, ids.size());
+            }
+            
+            List<Subscription> renewable = new ArrayList<>(due.size());
+            List<Subscription> lapsed = new ArrayList<>();
+            for (Subscription subscription : due) {
+                (Boolean.TRUE.equals(subscription.getPlan().getActive()) ? renewable : lapsed).add(subscription);
+            }
+            
+            List<Long> dueIds = due.stream().map(Subscription::getId).toList();
+            int expired = subscriptionRepository.deactivateByIds(
+                    dueIds, Subscription.SubscriptionStatus.EXPIRED, now);
+            if (expired != due.size()) {
+                throw new RuntimeException("Expected to expire " + due.size()
+                        + " subscriptions but expired " + expired);
+            }
+            
+            List<Subscription> successors = new ArrayList<>(renewable.size());
+            for (Subscription old : renewable) {
+                successors.add(successor(old, now));
+            }
+            subscriptionRepository.saveAll(successors);
+            subscriptionRepository.flush();
+            afterCommit(renewable, successors);
+            expireAfterCommit(lapsed);
+            return new Counts(renewable.size(), lapsed.size(), ids.size() - due.size());
+        });
+        
+        result.renewed.addAndGet(counts.renewed);
+        result.expired.addAndGet(counts.expired);
+        result.skipped.addAndGet(counts.skipped);
+    }
+    
+    private Subscription successor(Subscription old, LocalDateTime now) {
+        User user = old.getUser();
+        MembershipPlan plan = old.getPlan();
+        Subscription subscription = new Subscription();
+        subscription.setUser(user);
+        subscription.setPlan(plan);
+        subscription.setTier(tierEligibilityIndex.findBestTier(user.getTotalOrderCount(), user.getTotalOrderValue()));
+        subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+        subscription.setStartDate(now);
+        subscription.setEndDate(now.plusDays(plan.getDurationInDays()));
+        subscription.setAutoRenew(old.getAutoRenew());
+        return subscription;
+    }
+    
+    private void afterCommit(List<Subscription> renewed, List<Subscription> successors) {
+        List<Long> userIds = renewed.stream().map(s -> s.getUser().getId()).toList();
+        activeSubscriptionCache.invalidateAll(userIds);
+        for (int i = 0; i < renewed.size(); i++) {
+            recentWriteTracker.recordAfterCommit(userIds.get(i));
+            expiryWheel.cancelAfterCommit(renewed.get(i).getId());
+            expiryWheel.scheduleAfterCommit(successors.get(i).getId(), successors.get(i).getEndDate());
+            historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.RENEWED, renewed.get(i));
+            historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.CREATED, successors.get(i));
+        }
+        AfterCommit.run(() -> {
+            for (int i = 0; i < renewed.size(); i++) {
+                Subscription old = renewed.get(i);
+                Subscription successor = successors.get(i);
+                membershipMetrics.subscriptionRenewed(old.getPlan().getName(), old.getTier().getName());
+                membershipMetrics.subscriptionCreated(successor.getPlan().getName(), successor.getTier().getName());
+            }
+        });
+    }
+    
+    private void expireAfterCommit(List<Subscription> lapsed) {
+        if (lapsed.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = lapsed.stream().map(s -> s.getUser().getId()).toList();
+        userIds.forEach(recentWriteTracker::recordAfterCommit);
+        activeSubscriptionCache.invalidateAll(userIds);
+        for (Subscription subscription : lapsed) {
+            expiryWheel.cancelAfterCommit(subscription.getId());
+            historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.EXPIRED, subscription);
+        }
+        AfterCommit.run(() -> {
+            for (Subscription subscription : lapsed) {
+                log.info("Expired subscription {} without renewal: plan {} is no longer active",
+                        subscription.getId(), subscription.getPlan().getName());
+                membershipMetrics.subscriptionsExpired(subscription.getPlan().getName(),
+                        subscription.getTier().getName(), 1);
+            }
+        });
+    }
+    
+    @AllArgsConstructor
+    private static final class Counts {
+        
+        private final int renewed;
+        private final int expired;
+        private final int skipped;
+    }
+    
+    /**
+     * Counters collected during a renewal.
+     */
+    public static class RenewalResult {
+        
+        private final AtomicLong renewed = new AtomicLong();
+        private final AtomicLong expired = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        
+        public long getRenewed() {
+            return renewed.get();
+        }
+        
+        /**
+         * Get the number of subscriptions expired without renewal because their
+         * plan is no longer active.
+         * 
+         * @return expired subscriptions
+         */
+        public long getExpired() {
+            return expired.get();
+        }
+        
+        public long getSkipped() {
+            return skipped.get();
+        }
+        
+        public long getFailed() {
+            return failed.get();
+        }
+        
+        @Override
+        public String toString() {
+            return "renewed=" + renewed + ", expired=" + expired + ", skipped=" + skipped + ", failed=" + failed;
+        }
+    }
+}
@@ -1,38 +1,80 @@
 package com.firstclub.firstclub.service;
 
+import com.firstclub.firstclub.config.ReadWriteRoutingDataSource;
+import com.firstclub.firstclub.dto.CacheStatsDTO;
+import com.firstclub.firstclub.dto.CursorPage;
+import com.firstclub.firstclub.dto.SubscriptionBatchItem;
+import com.firstclub.firstclub.dto.SubscriptionBatchResult;
 import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
 import com.firstclub.firstclub.dto.SubscriptionRequest;
 import com.firstclub.firstclub.model.*;
 import com.firstclub.firstclub.repository.*;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service class for Subscription-related business logic.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "firstclub.service", histogram = true)
 public class SubscriptionService {
     
+    /**
+     * Maximum number of requests accepted by {@link #createSubscriptions(List)}.
+     */
+    public static final int MAX_BATCH_SIZE = 5000;
+    
+    private static final int INSERT_CHUNK_SIZE = 500;
+    
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    
     private final SubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
     private final MembershipPlanRepository planRepository;
     private final MembershipTierRepository tierRepository;
-    private final MembershipTierService tierService;
+    private final TierEligibilityIndex tierEligibilityIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ActiveSubscriptionCache activeSubscriptionCache;
+    private final MembershipMetrics membershipMetrics;
+    private final UserWriteExecutor userWriteExecutor;
+    private final RecentWriteTracker recentWriteTracker;
+    private final SubscriptionExpiryWheel expiryWheel;
+    private final SubscriptionHistoryLog historyLog;
     
     /**
-     * Create a new subscription for a user.
+     * Create a new subscription for a user. Writes for the same user are
+     * serialized, and the database rejects a second active subscription.
      * 
      * @param request the subscription request
      * @return created subscription DTO
      */
-    @Transactional
     public SubscriptionDTO createSubscription(SubscriptionRequest request) {
+        if (request.getUserId() == null) {
+            throw new RuntimeException("User ID is required");
+        }
+        return userWriteExecutor.execute(request.getUserId(), () -> doCreateSubscription(request));
+    }
+    
+    private SubscriptionDTO doCreateSubscription(SubscriptionRequest request) {
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + request.getUserId()));
         
@@ -62,55 +104,174 @@ public class SubscriptionService {
         subscription.setAutoRenew(request.getAutoRenew());
         
         Subscription savedSubscription = subscriptionRepository.save(subscription);
+        activeSubscriptionCache.invalidate(user.getId());
+        expiryWheel.scheduleAfterCommit(savedSubscription.getId(), savedSubscription.getEndDate());
+        historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.CREATED, savedSubscription);
+        AfterCommit.run(() -> membershipMetrics.subscriptionCreated(plan.getName(), tier.getName()));
         return convertToDTO(savedSubscription);
     }
     
+    /**
+     * Create subscriptions for many users in one call.
+     * 
+     * Referenced users and plans and existing active subscriptions are loaded up
+     * front with IN queries, tiers are resolved in memory, and the new rows are
+     * inserted in JDBC batches, one transaction per chunk. If a chunk fails, its
+     * rows are retried one at a time, so a failing request does not affect the
+     * others.
+     * 
+     * @param requests the subscription requests
+     * @return per-request outcomes and totals
+     */
+    public SubscriptionBatchResult createSubscriptions(List<SubscriptionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RuntimeException("At least one subscription request is required");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+        
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> planIds = new HashSet<>();
+        for (SubscriptionRequest request : requests) {
+            if (request != null && request.getUserId() != null) {
+                userIds.add(request.getUserId());
+            }
+            if (request != null && request.getPlanId() != null) {
+                planIds.add(request.getPlanId());
+            }
+        }
+        
+        Map<Long, User> users = new HashMap<>();
+        Map<Long, MembershipPlan> plans = new HashMap<>();
+        Set<Long> usersWithActiveSubscription = new HashSet<>();
+        // Validated against the primary, since the inserts that follow must see recent writes
+        ReadWriteRoutingDataSource.onPrimary(() -> {
+            for (List<Long> chunk : partition(userIds, IN_CLAUSE_CHUNK_SIZE)) {
+                userRepository.findAllById(chunk).forEach(user -> users.put(user.getId(), user));
+                usersWithActiveSubscription.addAll(subscriptionRepository.findUserIdsWithStatus(
+                        chunk, Subscription.SubscriptionStatus.ACTIVE));
+            }
+            planRepository.findAllById(planIds).forEach(plan -> plans.put(plan.getId(), plan));
+            return null;
+        });
+        
+        List<SubscriptionBatchItem> items = new ArrayList<>(requests.size());
+        List<Subscription> pending = new ArrayList<>();
+        List<SubscriptionBatchItem> pendingItems = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        
+        for (int i = 0; i < requests.size(); i++) {
+            SubscriptionRequest request = requests.get(i);
+            SubscriptionBatchItem item = new SubscriptionBatchItem();
+            item.setIndex(i);
+            items.add(item);
+            
+            String error = validateBatchRequest(request, users, plans, usersWithActiveSubscription);
+            if (request != null) {
+                item.setUserId(request.getUserId());
+                item.setPlanId(request.getPlanId());
+            }
+            if (error != null) {
+                item.setMessage(error);
+                continue;
+            }
+            
+            User user = users.get(request.getUserId());
+            MembershipPlan plan = plans.get(request.getPlanId());
+            usersWithActiveSubscription.add(user.getId());
+            
+            Subscription subscription = new Subscription();
+            subscription.setUser(user);
+            subscription.setPlan(plan);
+            subscription.setTier(calculateUserTier(user));
+            subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+            subscription.setStartDate(now);
+            subscription.setEndDate(now.plusDays(plan.getDurationInDays()));
+            subscription.setAutoRenew(request.getAutoRenew() != null ? request.getAutoRenew() : false);
+            pending.add(subscription);
+            pendingItems.add(item);
+            
+            if (pending.size() == INSERT_CHUNK_SIZE) {
+                insertChunk(pending, pendingItems);
+                pending = new ArrayList<>();
+                pendingItems = new ArrayList<>();
+            }
+        }
+        if (!pending.isEmpty()) {
+            insertChunk(pending, pendingItems);
+        }
+        
+        int created = (int) items.stream().filter(SubscriptionBatchItem::isSuccess).count();
+        return new SubscriptionBatchResult(requests.size(), created, requests.size() - created, items);
+    }
+    
     /**
      * Get subscription by ID.
      * 
      * @param id the subscription ID
      * @return subscription DTO
      */
+    @Transactional(readOnly = true)
     public SubscriptionDTO getSubscriptionById(Long id) {
-        Subscription subscription = subscriptionRepository.findById(id)
+        return subscriptionRepository.findDtoById(id)
                 .orElseThrow(() -> new RuntimeException("Subscription not found with id: " + id));
-        return convertToDTO(subscription);
     }
     
     /**
-     * Get all subscriptions for a user.
+     * Get subscriptions for a user, one page at a time.
      * 
      * @param userId the user ID
-     * @return list of subscription DTOs
+     * @param cursor continuation token from the previous page, or null for the first page
+     * @param limit maximum number of items to return
+     * @return page of subscription DTOs ordered by id
      */
-    public List<SubscriptionDTO> getUserSubscriptions(Long userId) {
-        return subscriptionRepository.findByUserId(userId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<SubscriptionDTO> getUserSubscriptions(Long userId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<SubscriptionDTO> rows = recentWriteTracker.read(userId, () -> subscriptionRepository.findDtoPageByUserId(
+                userId, CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1)));
+        return CursorPage.of(rows, pageSize, SubscriptionDTO::getId, Function.identity());
     }
     
     /**
-     * Get active subscription for a user.
+     * Get active subscription for a user. Not transactional so cache hits never
+     * touch the pool; a miss loads through the repository method's own read-only
+     * transaction, so it is served by the replica unless the user was written
+     * within the staleness window.
      * 
      * @param userId the user ID
      * @return active subscription DTO
      */
     public SubscriptionDTO getActiveSubscription(Long userId) {
-        Subscription subscription = subscriptionRepository
-                .findByUserIdAndStatus(userId, Subscription.SubscriptionStatus.ACTIVE)
+        return activeSubscriptionCache
+                .get(userId, id -> recentWriteTracker.read(id, () -> subscriptionRepository.findDtoByUserIdAndStatus(
+                        id, Subscription.SubscriptionStatus.ACTIVE)))
                 .orElseThrow(() -> new RuntimeException("No active subscription found for user"));
-        return convertToDTO(subscription);
     }
     
     /**
-     * Get all subscriptions.
+     * Get statistics for the active subscription cache.
+     * 
+     * @return cache statistics
+     */
+    public CacheStatsDTO getActiveSubscriptionCacheStats() {
+        return activeSubscriptionCache.getStats();
+    }
+    
+    /**
+     * Get all subscriptions, one page at a time.
      * 
-     * @return list of subscription DTOs
+     * @param cursor continuation token from the previous page, or null for the first page
+     * @param limit maximum number of items to return
+     * @return page of subscription DTOs ordered by id
      */
-    public List<SubscriptionDTO> getAllSubscriptions() {
-        return subscriptionRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<SubscriptionDTO> getAllSubscriptions(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<SubscriptionDTO> rows = subscriptionRepository.findDtoPage(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, SubscriptionDTO::getId, Function.identity());
     }
     
     /**
@@ -121,7 +282,7 @@ public class SubscriptionService {
      */
     @Transactional
     public SubscriptionDTO upgradeTier(Long subscriptionId) {
-        Subscription subscription = subscriptionRepository.findById(subscriptionId)
+        Subscription subscription = subscriptionRepository.findWithAssociationsById(subscriptionId)
                 .orElseThrow(() -> new RuntimeException("Subscription not found with id: " + subscriptionId));
         
         if (subscription.getStatus() != Subscription.SubscriptionStatus.ACTIVE) {
@@ -133,6 +294,9 @@ public class SubscriptionService {
         subscription.setTier(newTier);
         
         Subscription updatedSubscription = subscriptionRepository.save(subscription);
+        activeSubscriptionCache.invalidate(subscription.getUser().getId());
+        recentWriteTracker.recordAfterCommit(subscription.getUser().getId());
+        historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.UPGRADED, updatedSubscription);
         return convertToDTO(updatedSubscription);
     }
     
@@ -145,7 +309,7 @@ public class SubscriptionService {
      */
     @Transactional
     public SubscriptionDTO downgradeTier(Long subscriptionId, MembershipTier.TierLevel tierLevel) {
-        Subscription subscription = subscriptionRepository.findById(subscriptionId)
+        Subscription subscription = subscriptionRepository.findWithAssociationsById(subscriptionId)
                 .orElseThrow(() -> new RuntimeException("Subscription not found with id: " + subscriptionId));
         
         if (subscription.getStatus() != Subscription.SubscriptionStatus.ACTIVE) {
@@ -158,6 +322,9 @@ public class SubscriptionService {
         subscription.setTier(newTier);
         
         Subscription updatedSubscription = subscriptionRepository.save(subscription);
+        activeSubscriptionCache.invalidate(subscription.getUser().getId());
+        recentWriteTracker.recordAfterCommit(subscription.getUser().getId());
+        historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.DOWNGRADED, updatedSubscription);
         return convertToDTO(updatedSubscription);
     }
     
@@ -167,15 +334,23 @@ public class SubscriptionService {
      * @param subscriptionId the subscription ID
      * @return cancelled subscription DTO
      */
-    @Transactional
     public SubscriptionDTO cancelSubscription(Long subscriptionId) {
-        Subscription subscription = subscriptionRepository.findById(subscriptionId)
+        return userWriteExecutor.execute(findUserId(subscriptionId), () -> doCancelSubscription(subscriptionId));
+    }
+    
+    private SubscriptionDTO doCancelSubscription(Long subscriptionId) {
+        Subscription subscription = subscriptionRepository.findWithAssociationsById(subscriptionId)
                 .orElseThrow(() -> new RuntimeException("Subscription not found with id: " + subscriptionId));
         
         subscription.setStatus(Subscription.SubscriptionStatus.CANCELLED);
         subscription.setAutoRenew(false);
         
         Subscription cancelledSubscription = subscriptionRepository.save(subscription);
+        activeSubscriptionCache.invalidate(subscription.getUser().getId());
+        expiryWheel.cancelAfterCommit(subscriptionId);
+        historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.CANCELLED, cancelledSubscription);
+        AfterCommit.run(() -> membershipMetrics.subscriptionCancelled(
+                subscription.getPlan().getName(), subscription.getTier().getName()));
         return convertToDTO(cancelledSubscription);
     }
     
@@ -185,14 +360,23 @@ public class SubscriptionService {
      * @param subscriptionId the subscription ID
      * @return renewed subscription DTO
      */
-    @Transactional
     public SubscriptionDTO renewSubscription(Long subscriptionId) {
-        Subscription oldSubscription = subscriptionRepository.findById(subscriptionId)
+        return userWriteExecutor.execute(findUserId(subscriptionId), () -> doRenewSubscription(subscriptionId));
+    }
+    
+    private SubscriptionDTO doRenewSubscription(Long subscriptionId) {
+        Subscription oldSubscription = subscriptionRepository.findWithAssociationsById(subscriptionId)
                 .orElseThrow(() -> new RuntimeException("Subscription not found with id: " + subscriptionId));
         
-        // Mark old subscription as expired
+        // Mark old subscription as expired; flushed first so the new active row
+        // does not collide with it on the one-active-per-user constraint
         oldSubscription.setStatus(Subscription.SubscriptionStatus.EXPIRED);
-        subscriptionRepository.save(oldSubscription);
+        subscriptionRepository.saveAndFlush(oldSubscription);
+        activeSubscriptionCache.invalidate(oldSubscription.getUser().getId());
+        expiryWheel.cancelAfterCommit(subscriptionId);
+        historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.RENEWED, oldSubscription);
+        AfterCommit.run(() -> membershipMetrics.subscriptionRenewed(
+                oldSubscription.getPlan().getName(), oldSubscription.getTier().getName()));
         
         // Create new subscription
         SubscriptionRequest request = new SubscriptionRequest();
@@ -200,31 +384,97 @@ public class SubscriptionService {
         request.setPlanId(oldSubscription.getPlan().getId());
         request.setAutoRenew(oldSubscription.getAutoRenew());
         
-        return createSubscription(request);
+        return doCreateSubscription(request);
     }
     
-    /**
-     * Check and update expired subscriptions.
-     */
-    @Transactional
-    public void checkAndUpdateExpiredSubscriptions() {
-        List<Subscription> activeSubscriptions = subscriptionRepository
-                .findByStatus(Subscription.SubscriptionStatus.ACTIVE);
-        
-        LocalDateTime now = LocalDateTime.now();
-        
-        for (Subscription subscription : activeSubscriptions) {
-            if (subscription.getEndDate().isBefore(now)) {
-                if (subscription.getAutoRenew()) {
-                    renewSubscription(subscription.getId());
-                } else {
-                    subscription.setStatus(Subscription.SubscriptionStatus.EXPIRED);
-                    subscriptionRepository.save(subscription);
+    private Long findUserId(Long subscriptionId) {
+        return ReadWriteRoutingDataSource.onPrimary(() -> subscriptionRepository.findUserIdById(subscriptionId))
+                .orElseThrow(() -> new RuntimeException("Subscription not found with id: " + subscriptionId));
+    }
+    
+    private String validateBatchRequest(SubscriptionRequest request,
+                                        Map<Long, User> users,
+                                        Map<Long, MembershipPlan> plans,
+                                        Set<Long> usersWithActiveSubscription) {
+        if (request == null || request.getUserId() == null) {
+            return "User ID is required";
+        }
+        if (request.getPlanId() == null) {
+            return "Plan ID is required";
+        }
+        if (!users.containsKey(request.getUserId())) {
+            return "User not found with id: " + request.getUserId();
+        }
+        MembershipPlan plan = plans.get(request.getPlanId());
+        if (plan == null) {
+            return "Plan not found with id: " + request.getPlanId();
+        }
+        if (!plan.getActive()) {
+            return "Plan is not active";
+        }
+        if (usersWithActiveSubscription.contains(request.getUserId())) {
+            return "User already has an active subscription";
+        }
+        return null;
+    }
+    
+    private void insertChunk(List<Subscription> subscriptions, List<SubscriptionBatchItem> items) {
+        try {
+            insertAll(subscriptions, items);
+        } catch (RuntimeException e) {
+            log.debug("Subscription chunk of {} failed, retrying individually: {}", items.size(), e.getMessage());
+            for (int i = 0; i < subscriptions.size(); i++) {
+                Subscription subscription = subscriptions.get(i);
+                SubscriptionBatchItem item = items.get(i);
+                // Clear what the rolled-back persist assigned, so the row is inserted afresh
+                subscription.setId(null);
+                subscription.setVersion(null);
+                try {
+                    insertAll(List.of(subscription), List.of(item));
+                } catch (RuntimeException single) {
+                    item.setMessage(UserWriteExecutor.isActiveUserConflict(single)
+                            ? "User already has an active subscription"
+                            : "Insert failed: " + single.getMessage());
                 }
             }
         }
     }
     
+    private void insertAll(List<Subscription> subscriptions, List<SubscriptionBatchItem> items) {
+        transactionTemplate.executeWithoutResult(status -> {
+            items.forEach(item -> recentWriteTracker.recordAfterCommit(item.getUserId()));
+            subscriptionRepository.saveAll(subscriptions);
+        });
+        activeSubscriptionCache.invalidateAll(items.stream()
+                .map(SubscriptionBatchItem::getUserId)
+                .collect(Collectors.toList()));
+        for (int i = 0; i < subscriptions.size(); i++) {
+            Subscription subscription = subscriptions.get(i);
+            expiryWheel.scheduleAfterCommit(subscription.getId(), subscription.getEndDate());
+            historyLog.recordAfterCommit(SubscriptionHistoryDTO.Event.CREATED, subscription);
+            membershipMetrics.subscriptionCreated(subscription.getPlan().getName(), subscription.getTier().getName());
+            items.get(i).setSuccess(true);
+            items.get(i).setSubscriptionId(subscription.getId());
+            items.get(i).setMessage("Subscription created successfully");
+        }
+    }
+    
+    private static List<List<Long>> partition(Collection<Long> ids, int size) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(size);
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(size);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+    
     /**
      * Calculate appropriate tier for a user based on order history.
      * 
@@ -232,18 +482,10 @@ public class SubscriptionService {
      * @return calculated membership tier
      */
     private MembershipTier calculateUserTier(User user) {
-        List<MembershipTier> eligibleTiers = tierRepository.findEligibleTiers(
+        return tierEligibilityIndex.findBestTier(
                 user.getTotalOrderCount(),
                 user.getTotalOrderValue()
         );
-        
-        if (eligibleTiers.isEmpty()) {
-            // Return default Silver tier
-            return tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER)
-                    .orElseThrow(() -> new RuntimeException("Default tier not found"));
-        }
-        
-        return eligibleTiers.get(0);
     }
     
     /**
@@ -0,0 +1,151 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.ReadWriteRoutingDataSource;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of active tier thresholds.
+ * 
+ * Tiers are few and rarely change, so instead of querying for eligible tiers on
+ * every subscription write the thresholds are kept in primitive arrays sorted the
+ * same way as {@link MembershipTierRepository#findEligibleTiers}. The snapshot is
+ * immutable and replaced atomically whenever a tier mutation commits, and once
+ * more when the application is ready, after the initial tiers are seeded. Only
+ * one load runs at a time, and each reads after the commit that triggered it, so
+ * the last snapshot published always reflects the latest tiers. A snapshot
+ * without the default tier is used but never kept, so a lookup made before
+ * seeding cannot leave the index empty.
+ */
+@Component
+@RequiredArgsConstructor
+public class TierEligibilityIndex {
+    
+    private final MembershipTierRepository tierRepository;
+    
+    private final ReentrantLock loadLock = new ReentrantLock();
+    
+    private volatile Snapshot snapshot;
+    
+    /**
+     * Find the best tier for the given order history.
+     * 
+     * @param orderCount total number of orders
+     * @param orderValue total order value
+     * @return the highest eligible active tier, or the Silver tier if none matches
+     */
+    public MembershipTier findBestTier(Integer orderCount, Long orderValue) {
+        return current().bestTier(
+                orderCount != null ? orderCount : 0,
+                orderValue != null ? orderValue : 0L);
+    }
+    
+    /**
+     * Reload the index from the primary database, so a lagging replica is never
+     * cached.
+     */
+    public void rebuild() {
+        load();
+    }
+    
+    /**
+     * Reload the index once the initial tiers have been seeded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildWhenReady() {
+        rebuild();
+    }
+    
+    /**
+     * Reload the index once the current transaction commits.
+     */
+    public void rebuildAfterCommit() {
+        AfterCommit.run(this::rebuild);
+    }
+    
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            loadLock.lock();
+            try {
+                current = snapshot != null ? snapshot : load();
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+    
+    private Snapshot load() {
+        loadLock.lock();
+        try {
+            Snapshot loaded = ReadWriteRoutingDataSource.onPrimary(() -> Snapshot.of(
+                    tierRepository.findByActiveTrue(),
+                    tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER).orElse(null)));
+            snapshot = loaded.defaultTier != null ? loaded : null;
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+    
+    private static final class Snapshot {
+        
+        private final int[] minOrderCounts;
+        private final long[] minOrderValues;
+        private final MembershipTier[] tiers;
+        private final MembershipTier defaultTier;
+        
+        private Snapshot(int[] minOrderCounts, long[] minOrderValues,
+                         MembershipTier[] tiers, MembershipTier defaultTier) {
+            this.minOrderCounts = minOrderCounts;
+            this.minOrderValues = minOrderValues;
+            this.tiers = tiers;
+            this.defaultTier = defaultTier;
+        }
+        
+        static Snapshot of(List<MembershipTier> activeTiers, MembershipTier defaultTier) {
+            MembershipTier[] sorted = activeTiers.stream()
+                    .sorted(Comparator.comparingInt(Snapshot::minOrderCount)
+                            .thenComparingLong(Snapshot::minOrderValue)
+                            .reversed())
+                    .toArray(MembershipTier[]::new);
+            
+            int[] counts = new int[sorted.length];
+            long[] values = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                counts[i] = minOrderCount(sorted[i]);
+                values[i] = minOrderValue(sorted[i]);
+            }
+            return new Snapshot(counts, values, sorted, defaultTier);
+        }
+        
+        MembershipTier bestTier(int orderCount, long orderValue) {
+            for (int i = 0; i < tiers.length; i++) {
+                if (minOrderCounts[i] <= orderCount && minOrderValues[i] <= orderValue) {
+                    return tiers[i];
+                }
+            }
+            if (defaultTier == null) {
+                throw new RuntimeException("Default tier not found");
+            }
+            return defaultTier;
+        }
+        
+        private static int minOrderCount(MembershipTier tier) {
+            return tier.getMinOrderCount() != null ? tier.getMinOrderCount() : 0;
+        }
+        
+        private static long minOrderValue(MembershipTier tier) {
+            return tier.getMinOrderValue() != null ? tier.getMinOrderValue() : 0L;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves active subscriptions to the tier their user's order totals qualify for.
+ * 
+ * Candidates are loaded together with the user's totals in one query, targets
+ * come from {@link TierEligibilityIndex}, and changes are written as one
+ * {@code UPDATE ... WHERE id IN (...)} per (current tier, target tier) pair. Each
+ * update re-checks the current tier and status, so a subscription changed or
+ * cancelled concurrently is left alone rather than overwritten.
+ */
+@Component
+@RequiredArgsConstructor
+class TierReassigner {
+    
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    
+    private static final String SELECT_CANDIDATES = "SELECT s.id, s.user_id, s.tier_id, t.tier_level, " +
+            "u.total_order_count, u.total_order_value " +
+            "FROM subscriptions s JOIN users u ON u.id = s.user_id JOIN membership_tiers t ON t.id = s.tier_id ";
+    
+    private static final String CANDIDATES_BY_ID_RANGE_SQL = SELECT_CANDIDATES +
+            "WHERE s.id BETWEEN :fromId AND :toId AND s.status = :status";
+    
+    private static final String ID_BOUNDS_SQL = "SELECT MIN(id), MAX(id) FROM subscriptions WHERE status = :status";
+    
+    private static final String CANDIDATES_BY_USER_IDS_SQL = SELECT_CANDIDATES +
+            "WHERE s.user_id IN (:userIds) AND s.status = :status";
+    
+    private static final String UPDATE_TIER_SQL = "UPDATE subscriptions " +
+            "SET tier_id = :toTierId, version = version + 1, updated_at = :now " +
+            "WHERE id IN (:ids) AND tier_id = :fromTierId AND status = :status";
+    
+    private static final RowMapper<Candidate> CANDIDATE_MAPPER = (rs, rowNum) -> new Candidate(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getLong("tier_id"),
+            MembershipTier.TierLevel.valueOf(rs.getString("tier_level")),
+            rs.getInt("total_order_count"),
+            rs.getLong("total_order_value"));
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TierEligibilityIndex tierEligibilityIndex;
+    private final ActiveSubscriptionCache activeSubscriptionCache;
+    private final SubscriptionHistoryLog historyLog;
+    private final RecentWriteTracker recentWriteTracker;
+    
+    /**
+     * Load the active subscriptions of the given users with their order totals.
+     * 
+     * @param userIds the user IDs
+     * @return one candidate per user with an active subscription
+     */
+    List<Candidate> loadByUserIds(Collection<Long> userIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userIds", userIds)
+                .addValue("status", Subscription.SubscriptionStatus.ACTIVE.name());
+        return jdbcTemplate.query(CANDIDATES_BY_USER_IDS_SQL, parameters, CANDIDATE_MAPPER);
+    }
+    
+    /**
+     * Load the active subscriptions in an id range with their users' order totals.
+     * 
+     * @param fromId first subscription ID, inclusive
+     * @param toId last subscription ID, inclusive
+     * @return one candidate per active subscription in the range
+     */
+    List<Candidate> loadByIdRange(long fromId, long toId) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("fromId", fromId)
+                .addValue("toId", toId)
+                .addValue("status", Subscription.SubscriptionStatus.ACTIVE.name());
+        return jdbcTemplate.query(CANDIDATES_BY_ID_RANGE_SQL, parameters, CANDIDATE_MAPPER);
+    }
+    
+    /**
+     * Find the lowest and highest active subscription IDs.
+     * 
+     * @return {@code [min, max]}, or null if there are no active subscriptions
+     */
+    long[] activeIdBounds() {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("status", Subscription.SubscriptionStatus.ACTIVE.name());
+        return jdbcTemplate.queryForObject(ID_BOUNDS_SQL, parameters, (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+    
+    /**
+     * Move each candidate to its eligible tier in one transaction.
+     * 
+     * @param candidates subscriptions to evaluate
+     * @param upgradeOnly when true, never move a subscription to a lower tier level
+     * @return number of subscriptions whose tier changed
+     */
+    int reassign(List<Candidate> candidates, boolean upgradeOnly) {
+        Map<List<Long>, List<Candidate>> moves = new HashMap<>();
+        Map<Long, MembershipTier> targets = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            MembershipTier target = tierEligibilityIndex.findBestTier(candidate.orderCount, candidate.orderValue);
+            if (target.getId().equals(candidate.tierId)) {
+                continue;
+            }
+            if (upgradeOnly && target.getTierLevel().compareTo(candidate.tierLevel) <= 0) {
+                continue;
+            }
+            moves.computeIfAbsent(Arrays.asList(candidate.tierId, target.getId()), key -> new ArrayList<>())
+                    .add(candidate);
+            targets.put(candidate.subscriptionId, target);
+        }
+        if (moves.isEmpty()) {
+            return 0;
+        }
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Integer changed = transactionTemplate.execute(status -> {
+            int updated = 0;
+            List<Long> userIds = new ArrayList<>();
+            for (Map.Entry<List<Long>, List<Candidate>> move : moves.entrySet()) {
+                List<Candidate> group = move.getValue();
+                for (int from = 0; from < group.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                    List<Candidate> chunk = group.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, group.size()));
+                    MapSqlParameterSource parameters = new MapSqlParameterSource()
+                            .addValue("toTierId", move.getKey().get(1))
+                            .addValue("fromTierId", move.getKey().get(0))
+                            .addValue("now", now)
+                            .addValue("status", Subscription.SubscriptionStatus.ACTIVE.name())
+                            .addValue("ids", chunk.stream().map(Candidate::getSubscriptionId).toList());
+                    int chunkUpdated = jdbcTemplate.update(UPDATE_TIER_SQL, parameters);
+                    updated += chunkUpdated;
+                    chunk.forEach(candidate -> userIds.add(candidate.userId));
+                    if (chunkUpdated == chunk.size()) {
+                        // Skipped when some rows changed concurrently, as there is no telling which
+                        chunk.forEach(candidate -> recordMove(candidate, targets.get(candidate.subscriptionId)));
+                    }
+                }
+            }
+            userIds.forEach(recentWriteTracker::recordAfterCommit);
+            activeSubscriptionCache.invalidateAll(userIds);
+            return updated;
+        });
+        return changed != null ? changed : 0;
+    }
+    
+    private void recordMove(Candidate candidate, MembershipTier target) {
+        SubscriptionHistoryDTO.Event event = target.getTierLevel().compareTo(candidate.tierLevel) > 0
+                ? SubscriptionHistoryDTO.Event.UPGRADED
+                : SubscriptionHistoryDTO.Event.DOWNGRADED;
+        historyLog.recordAfterCommit(event, candidate.subscriptionId, candidate.userId, target.getId(), null);
+    }
+    
+    /**
+     * An active subscription with its current tier and its user's order totals.
+     */
+    @Getter
+    @AllArgsConstructor
+    static final class Candidate {
+        
+        private final long subscriptionId;
+        private final long userId;
+        private final long tierId;
+        private final MembershipTier.TierLevel tierLevel;
+        private final int orderCount;
+        private final long orderValue;
+    }
+}
@@ -0,0 +1,92 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.TierReevaluationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Upgrades active subscriptions once a user's order totals cross a tier threshold.
+ * 
+ * {@link OrderStatsAccumulator} publishes each user whose totals it has just
+ * written. Publishing never blocks: a user already waiting is not queued twice,
+ * and when the bounded queue is full the event is dropped and counted. A
+ * scheduled worker drains the queue in batches and hands them to
+ * {@link TierReassigner}, which only ever moves subscriptions up.
+ */
+@Slf4j
+@Component
+public class TierReevaluationPipeline {
+    
+    private final TierReassigner tierReassigner;
+    private final TierReevaluationProperties properties;
+    private final BlockingQueue<Long> queue;
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final Counter droppedCounter;
+    private final Counter upgradedCounter;
+    
+    public TierReevaluationPipeline(TierReassigner tierReassigner,
+                                    TierReevaluationProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.tierReassigner = tierReassigner;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        meterRegistry.gaugeCollectionSize("firstclub.tier-reevaluation.queued", List.of(), queued);
+        this.droppedCounter = Counter.builder("firstclub.tier-reevaluation.dropped")
+                .description("Tier re-evaluation events dropped because the queue was full")
+                .register(meterRegistry);
+        this.upgradedCounter = Counter.builder("firstclub.tier-reevaluation.upgraded")
+                .description("Subscriptions upgraded after an order stats change")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Request re-evaluation of a user's tier.
+     * 
+     * @param userId the user ID
+     */
+    public void publish(long userId) {
+        if (!queued.add(userId)) {
+            return;
+        }
+        if (!queue.offer(userId)) {
+            queued.remove(userId);
+            droppedCounter.increment();
+        }
+    }
+    
+    /**
+     * Evaluate every user queued so far, one batch at a time.
+     * 
+     * @return number of subscriptions upgraded
+     */
+    @Scheduled(fixedDelayString = "${firstclub.tier-reevaluation.interval-ms:500}")
+    public int processPending() {
+        int upgraded = 0;
+        List<Long> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            // Release the users first so stats written from here on queue them again
+            batch.forEach(queued::remove);
+            try {
+                upgraded += tierReassigner.reassign(tierReassigner.loadByUserIds(batch), true);
+            } catch (RuntimeException e) {
+                log.error("Failed to re-evaluate tiers for {} users", batch.size(), e);
+            }
+            batch.clear();
+        }
+        if (upgraded > 0) {
+            upgradedCounter.increment(upgraded);
+            log.debug("Upgraded {} subscriptions after order stats changes", upgraded);
+        }
+        return upgraded;
+    }
+}
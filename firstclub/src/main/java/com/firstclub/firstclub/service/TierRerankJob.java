@@ -0,0 +1,198 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.TierRerankProperties;
+import com.firstclub.firstclub.dto.TierRerankStatusDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Admin-triggered job that moves every active subscription to the tier its
+ * user's current order totals qualify for, e.g. after tier thresholds change.
+ * 
+ * The active id space is split into fixed-width ranges processed on a dedicated
+ * fork-join pool. Each range is loaded, ranked and written in its own short
+ * transaction through {@link TierReassigner}, so no lock is held for longer than
+ * one range, rows changed concurrently are skipped, and a failed range does not
+ * undo the others. Only one run is active at a time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TierRerankJob {
+    
+    private final TierReassigner tierReassigner;
+    private final TierRerankProperties properties;
+    
+    private final AtomicReference<Run> current = new AtomicReference<>();
+    
+    /**
+     * Start a re-ranking run in the background.
+     * 
+     * @return status of the new run
+     */
+    public TierRerankStatusDTO start() {
+        Run run = new Run();
+        Run previous = current.get();
+        if (previous != null && previous.state == TierRerankStatusDTO.State.RUNNING) {
+            throw new RuntimeException("Tier re-ranking is already running");
+        }
+        if (!current.compareAndSet(previous, run)) {
+            throw new RuntimeException("Tier re-ranking is already running");
+        }
+        
+        // Taken before the run starts, so a fast run cannot report itself finished here
+        TierRerankStatusDTO status = run.toDTO();
+        Thread.ofPlatform().name("tier-rerank").daemon(true).start(() -> execute(run));
+        return status;
+    }
+    
+    /**
+     * Request the running job to stop after the ranges already in progress.
+     * 
+     * @return status of the run
+     */
+    public TierRerankStatusDTO cancel() {
+        Run run = current.get();
+        if (run == null || run.state != TierRerankStatusDTO.State.RUNNING) {
+            throw new RuntimeException("Tier re-ranking is not running");
+        }
+        run.cancelled = true;
+        return run.toDTO();
+    }
+    
+    /**
+     * Get the progress of the current or last run.
+     * 
+     * @return run status
+     */
+    public TierRerankStatusDTO getStatus() {
+        Run run = current.get();
+        if (run == null) {
+            TierRerankStatusDTO idle = new TierRerankStatusDTO();
+            idle.setState(TierRerankStatusDTO.State.IDLE);
+            return idle;
+        }
+        return run.toDTO();
+    }
+    
+    private void execute(Run run) {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, properties.getParallelism()));
+        try {
+            long[] bounds = tierReassigner.activeIdBounds();
+            if (bounds != null) {
+                long rangeSize = Math.max(1, properties.getRangeSize());
+                run.totalRanges = (bounds[1] - bounds[0]) / rangeSize + 1;
+                pool.invoke(new RangeTask(run, bounds[0], bounds[1], rangeSize));
+            }
+            run.finish(run.cancelled ? TierRerankStatusDTO.State.CANCELLED : TierRerankStatusDTO.State.COMPLETED);
+            log.info("Tier re-ranking {}: {} scanned, {} changed, {} failed ranges",
+                    run.state, run.scanned, run.changed, run.failedRanges);
+        } catch (RuntimeException e) {
+            log.error("Tier re-ranking failed", e);
+            run.finish(TierRerankStatusDTO.State.FAILED);
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private void processRange(Run run, long fromId, long toId) {
+        if (run.cancelled) {
+            return;
+        }
+        try {
+            List<TierReassigner.Candidate> candidates = tierReassigner.loadByIdRange(fromId, toId);
+            run.scanned.addAndGet(candidates.size());
+            run.changed.addAndGet(tierReassigner.reassign(candidates, false));
+        } catch (RuntimeException e) {
+            log.warn("Tier re-ranking failed for ids {}-{}: {}", fromId, toId, e.getMessage());
+            run.failedRanges.incrementAndGet();
+        }
+        run.completedRanges.incrementAndGet();
+        pause();
+    }
+    
+    private void pause() {
+        if (properties.getPauseMs() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getPauseMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Splits an id range in halves until it is no wider than one range.
+     */
+    private final class RangeTask extends RecursiveAction {
+        
+        private final Run run;
+        private final long fromId;
+        private final long toId;
+        private final long rangeSize;
+        
+        private RangeTask(Run run, long fromId, long toId, long rangeSize) {
+            this.run = run;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.rangeSize = rangeSize;
+        }
+        
+        @Override
+        protected void compute() {
+            long ranges = (toId - fromId) / rangeSize + 1;
+            if (ranges <= 1) {
+                processRange(run, fromId, toId);
+                return;
+            }
+            long split = fromId + (ranges / 2) * rangeSize;
+            invokeAll(new RangeTask(run, fromId, split - 1, rangeSize),
+                    new RangeTask(run, split, toId, rangeSize));
+        }
+    }
+    
+    /**
+     * Mutable progress of one run, shared by its range tasks.
+     */
+    private static final class Run {
+        
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong completedRanges = new AtomicLong();
+        private final AtomicLong failedRanges = new AtomicLong();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong changed = new AtomicLong();
+        private volatile long totalRanges;
+        private volatile boolean cancelled;
+        private volatile TierRerankStatusDTO.State state = TierRerankStatusDTO.State.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        
+        void finish(TierRerankStatusDTO.State finalState) {
+            finishedAt = LocalDateTime.now();
+            state = finalState;
+        }
+        
+        TierRerankStatusDTO toDTO() {
+            long total = totalRanges;
+            long completed = completedRanges.get();
+            double percent = state == TierRerankStatusDTO.State.COMPLETED ? 100.0
+                    : total == 0 ? 0.0 : Math.min(100.0, completed * 100.0 / total);
+            return new TierRerankStatusDTO(state, startedAt, finishedAt, total, completed,
+                    failedRanges.get(), scanned.get(), changed.get(), percent);
+        }
+    }
+}
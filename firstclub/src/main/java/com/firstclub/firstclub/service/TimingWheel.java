@@ -0,0 +1,191 @@
+package com.firstclub.firstclub.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel of deadlines in second, minute, hour and day slots.
+ * 
+ * A deadline lives in the finest level whose span covers it. When time reaches a
+ * coarser slot its keys cascade into finer levels, so scheduling, cancelling and
+ * firing cost constant time per key no matter how many are waiting. Keys fire once
+ * their whole one-second slot has passed, so never early and at most a second
+ * late. Deadlines beyond the day level are rejected and must be scheduled again
+ * once they come within the horizon.
+ * 
+ * Not thread-safe.
+ */
+final class TimingWheel<K> {
+    
+    private static final long SECOND = 1000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    
+    private static final long[] TICKS = {SECOND, MINUTE, HOUR, DAY};
+    
+    private final Set<K>[][] slots;
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private final Set<K> overdue = new LinkedHashSet<>();
+    
+    /**
+     * Start of the next one-second slot to fire; every deadline before it has fired.
+     */
+    private long currentTime;
+    
+    /**
+     * Create a wheel.
+     * 
+     * @param startMillis the current time, in epoch milliseconds
+     * @param days number of day slots; deadlines until the end of the day
+     *             {@code days - 1} days from now are accepted
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long startMillis, int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("days must be at least 1");
+        }
+        int[] sizes = {60, 60, 24, days};
+        this.slots = new Set[TICKS.length][];
+        for (int level = 0; level < TICKS.length; level++) {
+            slots[level] = new Set[sizes[level]];
+            for (int slot = 0; slot < sizes[level]; slot++) {
+                slots[level][slot] = new LinkedHashSet<>();
+            }
+        }
+        this.currentTime = Math.floorDiv(startMillis, SECOND) * SECOND;
+    }
+    
+    /**
+     * Schedule a key, replacing any deadline it already has. A deadline that has
+     * already passed fires on the next {@link #advance(long)}.
+     * 
+     * @param key the key
+     * @param deadlineMillis when the key is due, in epoch milliseconds
+     * @return false if the deadline is beyond the horizon and was not scheduled
+     */
+    boolean schedule(K key, long deadlineMillis) {
+        cancel(key);
+        Timer<K> timer = new Timer<>(key, deadlineMillis);
+        if (!place(timer)) {
+            return false;
+        }
+        timers.put(key, timer);
+        return true;
+    }
+    
+    /**
+     * Remove a key.
+     * 
+     * @param key the key
+     * @return true if the key was scheduled
+     */
+    boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot.remove(key);
+        return true;
+    }
+    
+    /**
+     * Move time forward and collect every key whose deadline has passed.
+     * 
+     * @param nowMillis the current time, in epoch milliseconds
+     * @return due keys, in deadline order to within a second
+     */
+    List<K> advance(long nowMillis) {
+        List<K> due = new ArrayList<>(overdue);
+        overdue.clear();
+        if (timers.size() == due.size()) {
+            // Nothing left in the slots; skip straight to now
+            due.forEach(timers::remove);
+            currentTime = Math.max(currentTime, Math.floorDiv(nowMillis, SECOND) * SECOND);
+            return due;
+        }
+        
+        while (currentTime + SECOND <= nowMillis) {
+            for (int level = TICKS.length - 1; level > 0; level--) {
+                if (Math.floorMod(currentTime, TICKS[level]) == 0) {
+                    cascade(slotFor(level, currentTime));
+                }
+            }
+            Set<K> slot = slotFor(0, currentTime);
+            due.addAll(slot);
+            slot.clear();
+            currentTime += SECOND;
+        }
+        due.forEach(timers::remove);
+        return due;
+    }
+    
+    /**
+     * Get the end of the span the wheel accepts deadlines for.
+     * 
+     * @return exclusive upper bound, in epoch milliseconds
+     */
+    long horizon() {
+        int days = slots[TICKS.length - 1].length;
+        return (Math.floorDiv(currentTime, DAY) + days) * DAY;
+    }
+    
+    /**
+     * Get the number of scheduled keys.
+     * 
+     * @return scheduled keys, including overdue ones
+     */
+    int size() {
+        return timers.size();
+    }
+    
+    private boolean place(Timer<K> timer) {
+        if (timer.deadline < currentTime) {
+            overdue.add(timer.key);
+            timer.slot = overdue;
+            return true;
+        }
+        for (int level = 0; level < TICKS.length; level++) {
+            long ahead = Math.floorDiv(timer.deadline, TICKS[level]) - Math.floorDiv(currentTime, TICKS[level]);
+            if (ahead < slots[level].length) {
+                Set<K> slot = slotFor(level, timer.deadline);
+                slot.add(timer.key);
+                timer.slot = slot;
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void cascade(Set<K> slot) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(slot);
+        slot.clear();
+        for (K key : keys) {
+            place(timers.get(key));
+        }
+    }
+    
+    private Set<K> slotFor(int level, long time) {
+        Set<K>[] wheel = slots[level];
+        return wheel[(int) Math.floorMod(Math.floorDiv(time, TICKS[level]), (long) wheel.length)];
+    }
+    
+    private static final class Timer<K> {
+        
+        private final K key;
+        private final long deadline;
+        private Set<K> slot;
+        
+        private Timer(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.firstclub.firstclub.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.firstclub.config.UserImportProperties;
+import com.firstclub.firstclub.dto.UserDTO;
+import com.firstclub.firstclub.dto.UserImportItem;
+import com.firstclub.firstclub.dto.UserImportResult;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users from a streamed CSV or NDJSON body.
+ * 
+ * The body is read one line at a time and valid rows are collected into chunks.
+ * Each chunk costs one {@code IN} query for emails that already exist and one
+ * batched insert, in its own transaction, so memory use is bounded by the chunk
+ * size and the capped list of rejected rows. Chunks that were committed stay
+ * imported if a later chunk fails.
+ * 
+ * Only rejected rows get a per-row outcome in the result; imported rows are
+ * counted but not listed, since listing them would make the response grow with
+ * the file.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Timed(value = "firstclub.service", histogram = true)
+public class UserImportService {
+    
+    private static final String EXISTING_EMAILS_SQL = "SELECT email FROM users WHERE email IN (:emails)";
+    
+    private static final String INSERT_SQL = "INSERT INTO users (email, name, phone_number, " +
+            "total_order_count, total_order_value, created_at, updated_at) " +
+            "VALUES (:email, :name, :phoneNumber, 0, 0, :now, :now)";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UserImportProperties properties;
+    private final RecentWriteTracker recentWriteTracker;
+    
+    /**
+     * Supported body formats.
+     */
+    public enum Format {
+        /**
+         * Comma-separated values with a header row naming the email, name and
+         * optional phoneNumber columns. Quoted fields may not span lines.
+         */
+        CSV,
+        /**
+         * One JSON user object per line.
+         */
+        NDJSON
+    }
+    
+    /**
+     * Import users from a body. Rows with an invalid or already registered email are
+     * skipped and reported; the rest are inserted and only counted.
+     * 
+     * @param body the request body; read to the end but not closed
+     * @param format the body format
+     * @return counts and the rejected rows
+     */
+    public UserImportResult importUsers(InputStream body, Format format) {
+        Progress progress = new Progress(properties.getMaxReportedItems());
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            CsvColumns columns = null;
+            long line = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (line == 1 && text.startsWith("\uFEFF")) {
+                    text = text.substring(1);
+                }
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = CsvColumns.fromHeader(text);
+                    continue;
+                }
+                
+                progress.rows++;
+                Row row = parse(line, text, format, columns, progress);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import body after " + progress.rows + " rows", e);
+        }
+        
+        log.info("User import finished: rows={}, imported={}, duplicates={}, invalid={}",
+                progress.rows, progress.imported, progress.duplicates, progress.invalid);
+        return progress.toResult();
+    }
+    
+    private Row parse(long line, String text, Format format, CsvColumns columns, Progress progress) {
+        UserDTO user;
+        try {
+            user = format == Format.CSV ? columns.toUser(text) : objectMapper.readValue(text, UserDTO.class);
+        } catch (Exception e) {
+            progress.reject(line, null, UserImportItem.Outcome.INVALID, "Malformed row: " + e.getMessage());
+            return null;
+        }
+        if (user.getEmail() != null) {
+            user.setEmail(user.getEmail().trim());
+        }
+        
+        Set<ConstraintViolation<UserDTO>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            progress.reject(line, user.getEmail(), UserImportItem.Outcome.INVALID, message);
+            return null;
+        }
+        return new Row(line, user);
+    }
+    
+    private void importChunk(List<Row> chunk, Progress progress) {
+        Map<String, Row> byEmail = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            if (byEmail.putIfAbsent(row.user.getEmail(), row) != null) {
+                progress.reject(row.line, row.user.getEmail(), UserImportItem.Outcome.DUPLICATE,
+                        "Email appears earlier in the file");
+            }
+        }
+        
+        List<Row> existing = new ArrayList<>();
+        List<Row> fresh = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> registered = new HashSet<>(jdbcTemplate.queryForList(
+                        EXISTING_EMAILS_SQL, Map.of("emails", byEmail.keySet()), String.class));
+                for (Row row : byEmail.values()) {
+                    (registered.contains(row.user.getEmail()) ? existing : fresh).add(row);
+                }
+                insert(fresh);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // An email was registered concurrently; fall back to one row at a time
+            log.debug("Chunk insert conflicted, retrying {} rows individually", byEmail.size());
+            existing.clear();
+            fresh.clear();
+            insertIndividually(byEmail.values(), existing, fresh, progress);
+        }
+        
+        for (Row row : existing) {
+            progress.reject(row.line, row.user.getEmail(), UserImportItem.Outcome.DUPLICATE,
+                    "User with email " + row.user.getEmail() + " already exists");
+        }
+        progress.imported += fresh.size();
+    }
+    
+    private void insertIndividually(Iterable<Row> rows, List<Row> existing, List<Row> fresh, Progress progress) {
+        for (Row row : rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(row)));
+                fresh.add(row);
+            } catch (DataIntegrityViolationException e) {
+                // Only a registered email makes the row a duplicate; any other constraint rejects it as invalid
+                if (isRegistered(row.user.getEmail())) {
+                    existing.add(row);
+                } else {
+                    progress.reject(row.line, row.user.getEmail(), UserImportItem.Outcome.INVALID,
+                            "Rejected by the database: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+    
+    private boolean isRegistered(String email) {
+        return !jdbcTemplate.queryForList(EXISTING_EMAILS_SQL, Map.of("emails", List.of(email)), String.class)
+                .isEmpty();
+    }
+    
+    private void insert(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        SqlParameterSource[] batch = new SqlParameterSource[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            UserDTO user = rows.get(i).user;
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("email", user.getEmail())
+                    .addValue("name", user.getName())
+                    .addValue("phoneNumber", user.getPhoneNumber())
+                    .addValue("now", now);
+        }
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, keys, new String[]{"id"});
+        // Reads of the new users go to the primary until a replica has caught up
+        for (Map<String, Object> key : keys.getKeyList()) {
+            recentWriteTracker.recordAfterCommit(((Number) key.values().iterator().next()).longValue());
+        }
+    }
+    
+    private static final class Row {
+        
+        private final long line;
+        private final UserDTO user;
+        
+        private Row(long line, UserDTO user) {
+            this.line = line;
+            this.user = user;
+        }
+    }
+    
+    /**
+     * Column positions taken from a CSV header row.
+     */
+    private static final class CsvColumns {
+        
+        private final int email;
+        private final int name;
+        private final int phoneNumber;
+        
+        private CsvColumns(int email, int name, int phoneNumber) {
+            this.email = email;
+            this.name = name;
+            this.phoneNumber = phoneNumber;
+        }
+        
+        static CsvColumns fromHeader(String header) {
+            List<String> names = split(header).stream()
+                    .map(column -> column.trim().replace("_", "").toLowerCase(Locale.ROOT))
+                    .toList();
+            int email = names.indexOf("email");
+            int name = names.indexOf("name");
+            if (email < 0 || name < 0) {
+                throw new RuntimeException("CSV header must contain 'email' and 'name' columns");
+            }
+            return new CsvColumns(email, name, names.indexOf("phonenumber"));
+        }
+        
+        UserDTO toUser(String line) {
+            List<String> fields = split(line);
+            UserDTO user = new UserDTO();
+            user.setEmail(field(fields, email));
+            user.setName(field(fields, name));
+            user.setPhoneNumber(field(fields, phoneNumber));
+            return user;
+        }
+        
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+        
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+    
+    /**
+     * Running counts for one import.
+     */
+    private static final class Progress {
+        
+        private final int maxItems;
+        private final List<UserImportItem> items = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long invalid;
+        private boolean itemsTruncated;
+        
+        private Progress(int maxItems) {
+            this.maxItems = maxItems;
+        }
+        
+        void reject(long line, String email, UserImportItem.Outcome outcome, String message) {
+            if (outcome == UserImportItem.Outcome.DUPLICATE) {
+                duplicates++;
+            } else {
+                invalid++;
+            }
+            if (items.size() < maxItems) {
+                items.add(new UserImportItem(line, email, outcome, message));
+            } else {
+                itemsTruncated = true;
+            }
+        }
+        
+        UserImportResult toResult() {
+            items.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+            return new UserImportResult(rows, imported, duplicates, invalid, items, itemsTruncated);
+        }
+    }
+}
@@ -1,20 +1,25 @@
 package com.firstclub.firstclub.service;
 
+import com.firstclub.firstclub.dto.CursorPage;
 import com.firstclub.firstclub.dto.UserDTO;
 import com.firstclub.firstclub.model.User;
 import com.firstclub.firstclub.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "firstclub.service", histogram = true)
 public class UserService {
     
     private final UserRepository userRepository;
+    private final OrderStatsAccumulator orderStatsAccumulator;
+    private final RecentWriteTracker recentWriteTracker;
     
     @Transactional
     public UserDTO createUser(UserDTO userDTO) {
@@ -30,25 +35,30 @@ public class UserService {
         user.setTotalOrderValue(0L);
         
         User savedUser = userRepository.save(user);
+        recentWriteTracker.recordAfterCommit(savedUser.getId());
         return convertToDTO(savedUser);
     }
     
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long id) {
-        User user = userRepository.findById(id)
+        User user = recentWriteTracker.read(id, () -> userRepository.findById(id))
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         return convertToDTO(user);
     }
     
+    @Transactional(readOnly = true)
     public UserDTO getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
         return convertToDTO(user);
     }
     
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<UserDTO> getAllUsers(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, User::getId, this::convertToDTO);
     }
     
     @Transactional
@@ -60,18 +70,40 @@ public class UserService {
         user.setPhoneNumber(userDTO.getPhoneNumber());
         
         User updatedUser = userRepository.save(user);
+        recentWriteTracker.recordAfterCommit(id);
         return convertToDTO(updatedUser);
     }
     
-    @Transactional
+    /**
+     * Record an order for a user. Increments are buffered and written in batches,
+     * so they may take up to one flush interval to become visible. Unknown users
+     * are rejected before anything is buffered.
+     * 
+     * @param userId the user ID
+     * @param orderValue the order value
+     */
     public void updateUserOrderStats(Long userId, Long orderValue) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        
-        user.setTotalOrderCount(user.getTotalOrderCount() + 1);
-        user.setTotalOrderValue(user.getTotalOrderValue() + orderValue);
+        updateUserOrderStats(userId, orderValue, false);
+    }
+    
+    /**
+     * Record an order for a user, optionally writing it through before returning.
+     * 
+     * @param userId the user ID
+     * @param orderValue the order value
+     * @param flush write this user's pending increments immediately
+     */
+    public void updateUserOrderStats(Long userId, Long orderValue, boolean flush) {
+        if (orderValue == null || orderValue < 0) {
+            throw new RuntimeException("Order value must not be negative");
+        }
         
-        userRepository.save(user);
+        boolean recorded = flush
+                ? orderStatsAccumulator.recordAndFlush(userId, orderValue)
+                : orderStatsAccumulator.record(userId, orderValue);
+        if (!recorded) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
     }
     
     @Transactional
@@ -80,6 +112,8 @@ public class UserService {
             throw new RuntimeException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        recentWriteTracker.recordAfterCommit(id);
+        AfterCommit.run(() -> orderStatsAccumulator.forget(id));
     }
     
     private UserDTO convertToDTO(User user) {
@@ -0,0 +1,105 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.SubscriptionWriteProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs subscription writes one user at a time, each in its own transaction.
+ * 
+ * User IDs hash onto a fixed set of striped locks, so writes for the same user
+ * queue up in-process while writes for other users proceed in parallel. The lock
+ * is held until the transaction has committed. Races the lock cannot see, such as
+ * another instance or a bulk update, surface as an optimistic-lock failure or as
+ * a violation of the one-active-subscription-per-user constraint; those attempts
+ * are rolled back and retried a bounded number of times against fresh state.
+ * Other integrity violations are not races and are rethrown unchanged.
+ * 
+ * Writes must not be called inside an existing transaction, since a retry would
+ * otherwise reuse a transaction that is already marked rollback-only.
+ */
+@Slf4j
+@Component
+class UserWriteExecutor {
+    
+    private static final String ACTIVE_USER_CONSTRAINT = "uk_subscriptions_active_user_id";
+    
+    private final TransactionTemplate transactionTemplate;
+    private final SubscriptionWriteProperties properties;
+    private final RecentWriteTracker recentWriteTracker;
+    private final ReentrantLock[] locks;
+    
+    UserWriteExecutor(TransactionTemplate transactionTemplate,
+                      SubscriptionWriteProperties properties,
+                      RecentWriteTracker recentWriteTracker) {
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.recentWriteTracker = recentWriteTracker;
+        this.locks = new ReentrantLock[Math.max(1, properties.getLockStripes())];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * Run a write for a user under the user's lock and in a new transaction.
+     * 
+     * @param userId the user the write belongs to
+     * @param write the write; re-run from scratch on retry
+     * @return the write's result
+     */
+    <T> T execute(long userId, Supplier<T> write) {
+        ReentrantLock lock = locks[Math.floorMod(Long.hashCode(userId), locks.length)];
+        acquire(lock, userId);
+        try {
+            int maxAttempts = Math.max(1, properties.getMaxAttempts());
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    T result = transactionTemplate.execute(status -> write.get());
+                    recentWriteTracker.recordAfterCommit(userId);
+                    return result;
+                } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                    if (e instanceof DataIntegrityViolationException && !isActiveUserConflict(e)) {
+                        throw e;
+                    }
+                    if (attempt >= maxAttempts) {
+                        throw new RuntimeException("Subscription was modified concurrently, please retry", e);
+                    }
+                    log.debug("Retrying write for user {} after conflict (attempt {}): {}",
+                            userId, attempt, e.getMessage());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    static boolean isActiveUserConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(ACTIVE_USER_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void acquire(ReentrantLock lock, long userId) {
+        try {
+            if (!lock.tryLock(properties.getLockTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Too many concurrent changes for user " + userId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to change subscriptions of user " + userId);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+-- Baseline schema: the tables ddl-auto generated before migrations were introduced, plus
+-- the subscriptions_seq sequence and the subscriptions active_user_id and version columns
+-- that the entities gained at the same time.
+
+CREATE SEQUENCE subscriptions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email             VARCHAR(255) NOT NULL,
+    name              VARCHAR(255) NOT NULL,
+    phone_number      VARCHAR(255),
+    total_order_count INTEGER,
+    total_order_value BIGINT,
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE membership_plans (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(255) NOT NULL,
+    plan_type        ENUM ('MONTHLY', 'QUARTERLY', 'YEARLY') NOT NULL,
+    price            BIGINT NOT NULL,
+    duration_in_days INTEGER NOT NULL,
+    description      VARCHAR(255),
+    active           BOOLEAN NOT NULL,
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    CONSTRAINT uk_membership_plans_name UNIQUE (name)
+);
+
+CREATE TABLE membership_tiers (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                VARCHAR(255) NOT NULL,
+    tier_level          ENUM ('GOLD', 'PLATINUM', 'SILVER') NOT NULL,
+    min_order_count     INTEGER,
+    min_order_value     BIGINT,
+    discount_percentage BIGINT,
+    free_delivery       BOOLEAN,
+    priority_support    BOOLEAN,
+    exclusive_deals     BOOLEAN,
+    description         VARCHAR(255),
+    active              BOOLEAN NOT NULL,
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    CONSTRAINT uk_membership_tiers_name UNIQUE (name)
+);
+
+CREATE TABLE benefits (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tier_id      BIGINT NOT NULL,
+    name         VARCHAR(255) NOT NULL,
+    description  VARCHAR(255),
+    benefit_type ENUM ('CUSTOM', 'DISCOUNT', 'EARLY_ACCESS', 'EXCLUSIVE_DEALS', 'FREE_DELIVERY', 'PRIORITY_SUPPORT') NOT NULL,
+    value        VARCHAR(255),
+    active       BOOLEAN NOT NULL,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT fk_benefits_tier FOREIGN KEY (tier_id) REFERENCES membership_tiers (id)
+);
+
+CREATE TABLE subscriptions (
+    id             BIGINT NOT NULL PRIMARY KEY,
+    user_id        BIGINT NOT NULL,
+    plan_id        BIGINT NOT NULL,
+    tier_id        BIGINT NOT NULL,
+    status         ENUM ('ACTIVE', 'CANCELLED', 'EXPIRED', 'PENDING') NOT NULL,
+    start_date     TIMESTAMP(6) NOT NULL,
+    end_date       TIMESTAMP(6) NOT NULL,
+    auto_renew     BOOLEAN,
+    active_user_id BIGINT,
+    version        BIGINT DEFAULT 0 NOT NULL,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT uk_subscriptions_active_user_id UNIQUE (active_user_id),
+    CONSTRAINT fk_subscriptions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_subscriptions_plan FOREIGN KEY (plan_id) REFERENCES membership_plans (id),
+    CONSTRAINT fk_subscriptions_tier FOREIGN KEY (tier_id) REFERENCES membership_tiers (id)
+);
@@ -0,0 +1,8 @@
+-- Indexes backing the member lookup, expiry sweep, benefit and tier eligibility queries.
+-- Keep in sync with the @Table(indexes = ...) declarations on the entities.
+
+CREATE INDEX idx_subscriptions_user_status ON subscriptions (user_id, status);
+CREATE INDEX idx_subscriptions_status_end_date ON subscriptions (status, end_date);
+CREATE INDEX idx_benefits_tier_active ON benefits (tier_id, active);
+CREATE INDEX idx_membership_tiers_tier_level ON membership_tiers (tier_level);
+CREATE INDEX idx_membership_tiers_eligibility ON membership_tiers (active, min_order_count, min_order_value);
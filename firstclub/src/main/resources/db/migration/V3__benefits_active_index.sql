@@ -0,0 +1,4 @@
+-- Index backing the entitlement catalog's load of all active benefits.
+-- Keep in sync with the @Table(indexes = ...) declaration on Benefit.
+
+CREATE INDEX idx_benefits_active_tier ON benefits (active, tier_id);
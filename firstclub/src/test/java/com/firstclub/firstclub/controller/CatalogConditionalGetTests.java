@@ -0,0 +1,168 @@
+package com.firstclub.firstclub.controller;
+
+import com.firstclub.firstclub.dto.MembershipPlanDTO;
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import com.firstclub.firstclub.service.MembershipPlanService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that catalog reads carry validators, that a matching conditional
+ * request is answered with 304 without any SQL, and that pre-rendered payloads
+ * are reused until the catalog changes.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class CatalogConditionalGetTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private MembershipPlanService planService;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Test
+    void matchingETagIsNotModifiedWithoutQueries() throws Exception {
+        Long tierId = tierRepository.findByTierLevel(MembershipTier.TierLevel.GOLD).orElseThrow().getId();
+        for (String url : new String[] {"/api/plans/active", "/api/tiers/active",
+                "/api/benefits/tier/" + tierId + "/active"}) {
+            MockHttpServletResponse first = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse();
+            String eTag = first.getHeader(HttpHeaders.ETAG);
+            assertThat(eTag).as("ETag of %s", url).startsWith("\"");
+            assertThat(first.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+            
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+            assertThat(statistics.getPrepareStatementCount()).as("statements for 304 on %s", url).isZero();
+        }
+    }
+    
+    @Test
+    void renderedPayloadIsReusedAndGzipped() throws Exception {
+        byte[] plain = mockMvc.perform(get("/api/tiers/active"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        assertThat(new String(plain, StandardCharsets.UTF_8)).contains("\"success\":true", "GOLD");
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/tiers/active")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain);
+        }
+    }
+    
+    @Test
+    void gzipRepresentationHasItsOwnETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tiers/active"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        String gzipETag = mockMvc.perform(get("/api/tiers/active").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(gzipETag).isNotEqualTo(eTag).endsWith("-gzip\"");
+        
+        mockMvc.perform(get("/api/tiers/active")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        mockMvc.perform(get("/api/tiers/active")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipETag))
+                .andExpect(status().isNotModified());
+    }
+    
+    @Test
+    void mutationWithinTheSameSecondAdvancesLastModified() throws Exception {
+        String lastModified = mockMvc.perform(get("/api/plans/active"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.LAST_MODIFIED);
+        
+        MembershipPlanDTO plan = new MembershipPlanDTO();
+        plan.setName("Same Second " + UUID.randomUUID());
+        plan.setPlanType(MembershipPlan.PlanType.MONTHLY);
+        plan.setPrice(100L);
+        plan.setDurationInDays(30);
+        planService.createPlan(plan);
+        
+        MockHttpServletResponse changed = mockMvc.perform(get("/api/plans/active")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(plan.getName())))
+                .andReturn()
+                .getResponse();
+        assertThat(changed.getDateHeader(HttpHeaders.LAST_MODIFIED))
+                .isGreaterThan(DateTimeFormatter.RFC_1123_DATE_TIME.parse(lastModified, Instant::from).toEpochMilli());
+    }
+    
+    @Test
+    void mutationAdvancesETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/plans/active"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        
+        MembershipPlanDTO plan = new MembershipPlanDTO();
+        plan.setName("Conditional " + UUID.randomUUID());
+        plan.setPlanType(MembershipPlan.PlanType.MONTHLY);
+        plan.setPrice(100L);
+        plan.setDurationInDays(30);
+        planService.createPlan(plan);
+        
+        String newETag = mockMvc.perform(get("/api/plans/active").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(plan.getName())))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(newETag).isNotEqualTo(eTag);
+    }
+}
@@ -0,0 +1,126 @@
+package com.firstclub.firstclub.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.firstclub.dto.CursorPage;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pages through a list endpoint by following its cursors, and checks page size
+ * clamping and that malformed cursors are rejected by every list endpoint.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CursorPaginationTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void cursorsVisitEveryRowOnceInIdOrder() throws Exception {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setEmail(UUID.randomUUID() + "@example.com");
+            user.setName("Cursor " + i);
+            created.add(userRepository.save(user).getId());
+        }
+        
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            String path = cursor == null ? "/api/users?limit=2" : "/api/users?limit=2&cursor=" + cursor;
+            JsonNode page = objectMapper.readTree(mockMvc.perform(get(path))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("data");
+            
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(2);
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+            if (cursor == null) {
+                assertThat(page.get("nextCursor").isNull()).isTrue();
+            }
+        } while (cursor != null);
+        
+        assertThat(seen).isSorted().doesNotHaveDuplicates().containsAll(created);
+    }
+    
+    @Test
+    void cursorRoundTripsTheLastId() {
+        assertThat(CursorPage.decodeCursor(CursorPage.encodeCursor(42L))).isEqualTo(42L);
+        assertThat(CursorPage.decodeCursor(null)).isZero();
+        assertThat(CursorPage.decodeCursor(" ")).isZero();
+        
+        CursorPage<String> page = CursorPage.of(List.of(1L, 2L, 3L), 2, Long::valueOf, String::valueOf);
+        assertThat(page.getItems()).containsExactly("1", "2");
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(CursorPage.decodeCursor(page.getNextCursor())).isEqualTo(2L);
+        
+        CursorPage<String> last = CursorPage.of(List.of(3L), 2, Long::valueOf, String::valueOf);
+        assertThat(last.isHasMore()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+    
+    @Test
+    void limitIsClampedToAllowedRange() throws Exception {
+        assertThat(CursorPage.clampLimit(null)).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.clampLimit(0)).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.clampLimit(-5)).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.clampLimit(1)).isEqualTo(1);
+        assertThat(CursorPage.clampLimit(CursorPage.MAX_LIMIT + 1)).isEqualTo(CursorPage.MAX_LIMIT);
+        
+        mockMvc.perform(get("/api/users?limit=" + Integer.MAX_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(lessThanOrEqualTo(CursorPage.MAX_LIMIT)));
+    }
+    
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        List<String> cursors = List.of(
+                "not base64!",
+                encode("user:5"),
+                encode("id:five"));
+        List<String> endpoints = List.of(
+                "/api/users",
+                "/api/subscriptions",
+                "/api/subscriptions/user/1",
+                "/api/plans",
+                "/api/tiers",
+                "/api/benefits");
+        for (String endpoint : endpoints) {
+            for (String cursor : cursors) {
+                mockMvc.perform(get(endpoint).param("cursor", cursor))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Invalid cursor"));
+            }
+        }
+    }
+    
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
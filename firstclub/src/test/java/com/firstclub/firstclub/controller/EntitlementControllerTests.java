@@ -0,0 +1,78 @@
+package com.firstclub.firstclub.controller;
+
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that bulk entitlement lookups distinguish members from non-members.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EntitlementControllerTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Test
+    void batchDistinguishesMembersFromNonMembers() throws Exception {
+        User member = saveUser();
+        User nonMember = saveUser();
+        
+        Subscription subscription = new Subscription();
+        subscription.setUser(member);
+        subscription.setPlan(planRepository.findByActiveTrue().get(0));
+        subscription.setTier(tierRepository.findByTierLevel(MembershipTier.TierLevel.GOLD).orElseThrow());
+        subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+        subscription.setStartDate(LocalDateTime.now());
+        subscription.setEndDate(LocalDateTime.now().plusDays(30));
+        subscriptionRepository.save(subscription);
+        
+        mockMvc.perform(post("/api/entitlements/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\": [" + member.getId() + ", " + nonMember.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data['" + member.getId() + "'].member").value(true))
+                .andExpect(jsonPath("$.data['" + member.getId() + "'].tierLevel").value("GOLD"))
+                .andExpect(jsonPath("$.data['" + member.getId() + "'].freeDelivery").value(true))
+                .andExpect(jsonPath("$.data['" + nonMember.getId() + "'].member").value(false))
+                .andExpect(jsonPath("$.data['" + nonMember.getId() + "'].tierId").doesNotExist());
+    }
+    
+    private User saveUser() {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Entitlement Batch");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,136 @@
+package com.firstclub.firstclub.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.firstclub.dto.SubscriptionRequest;
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import com.firstclub.firstclub.service.SubscriptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exercises the NDJSON export endpoints end to end, plain and gzip-compressed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportControllerTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private SubscriptionService subscriptionService;
+    
+    @Test
+    void exportsFilteredSubscriptionsAsNdjson() throws Exception {
+        LocalDateTime from = LocalDateTime.now().minusSeconds(1);
+        MembershipPlan plan = planRepository.findByActiveTrue().get(0);
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Long userId = createUser().getId();
+            userIds.add(userId);
+            Long subscriptionId = subscriptionService.createSubscription(
+                    new SubscriptionRequest(userId, plan.getId(), false)).getId();
+            if (i == 2) {
+                subscriptionService.cancelSubscription(subscriptionId);
+            }
+        }
+        
+        MockHttpServletResponse response = stream(get("/api/subscriptions/export")
+                .param("status", "ACTIVE")
+                .param("from", from.toString()));
+        
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        List<JsonNode> rows = parseLines(response.getContentAsString(StandardCharsets.UTF_8));
+        assertThat(rows).extracting(row -> row.get("userId").asLong())
+                .containsExactly(userIds.get(0), userIds.get(1));
+        assertThat(rows).allSatisfy(row -> assertThat(row.get("status").asText()).isEqualTo("ACTIVE"));
+    }
+    
+    @Test
+    void exportsUsersGzipped() throws Exception {
+        LocalDateTime from = LocalDateTime.now().minusSeconds(1);
+        User first = createUser();
+        User second = createUser();
+        
+        MockHttpServletResponse response = stream(get("/api/users/export")
+                .param("from", from.toString())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+        
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(parseLines(body)).extracting(row -> row.get("email").asText())
+                .containsExactly(first.getEmail(), second.getEmail());
+    }
+    
+    @Test
+    void rejectsInvertedRange() throws Exception {
+        mockMvc.perform(get("/api/users/export")
+                        .param("from", "2024-02-01T00:00:00")
+                        .param("to", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    private MockHttpServletResponse stream(RequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+    }
+    
+    private List<JsonNode> parseLines(String body) throws IOException {
+        assertThat(body).endsWith("\n");
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        return rows;
+    }
+    
+    private User createUser() {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Export");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,149 @@
+package com.firstclub.firstclub.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.firstclub.dto.SubscriptionRequest;
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Checks that create and renew requests carrying an Idempotency-Key header run
+ * once, replay their result to retries and reject reuse of the key.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyKeyControllerTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Test
+    void retriedCreateReturnsOriginalSubscription() throws Exception {
+        Long userId = createUser();
+        String key = UUID.randomUUID().toString();
+        String body = createBody(userId);
+        
+        MvcResult first = create(key, body);
+        MvcResult retry = create(key, body);
+        
+        assertThat(first.getResponse().getStatus()).isEqualTo(201);
+        assertThat(retry.getResponse().getStatus()).isEqualTo(201);
+        Long subscriptionId = subscriptionId(first);
+        assertThat(subscriptionId(retry)).isEqualTo(subscriptionId);
+        assertThat(subscriptionRepository.findByUserIdAndStatus(userId, Subscription.SubscriptionStatus.ACTIVE))
+                .hasValueSatisfying(subscription -> assertThat(subscription.getId()).isEqualTo(subscriptionId));
+        
+        // Without the key the retry runs again and is refused
+        assertThat(create(null, body).getResponse().getStatus()).isEqualTo(400);
+    }
+    
+    @Test
+    void reusingKeyForDifferentRequestIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        Long userId = createUser();
+        Long subscriptionId = subscriptionId(create(key, createBody(userId)));
+        
+        assertThat(create(key, createBody(createUser())).getResponse().getStatus()).isEqualTo(422);
+        assertThat(mockMvc.perform(post("/api/subscriptions/{id}/renew", subscriptionId)
+                        .header("Idempotency-Key", key))
+                .andReturn().getResponse().getStatus()).isEqualTo(422);
+    }
+    
+    @Test
+    void concurrentRenewalsWithSameKeyRenewOnce() throws Exception {
+        Long userId = createUser();
+        Long subscriptionId = subscriptionId(create(null, createBody(userId)));
+        String key = UUID.randomUUID().toString();
+        
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<MvcResult>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/subscriptions/{id}/renew", subscriptionId)
+                            .header("Idempotency-Key", key)).andReturn();
+                }));
+            }
+            start.countDown();
+            
+            List<Long> renewedIds = new ArrayList<>();
+            for (Future<MvcResult> result : results) {
+                assertThat(result.get().getResponse().getStatus()).isEqualTo(200);
+                renewedIds.add(subscriptionId(result.get()));
+            }
+            assertThat(renewedIds).containsOnly(renewedIds.get(0));
+            assertThat(renewedIds.get(0)).isNotEqualTo(subscriptionId);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(subscriptionRepository.findByUserIdAndStatus(userId, Subscription.SubscriptionStatus.ACTIVE))
+                .hasValueSatisfying(subscription -> assertThat(subscription.getId()).isNotEqualTo(subscriptionId));
+        assertThat(subscriptionRepository.findAll().stream()
+                .filter(subscription -> subscription.getUser().getId().equals(userId))
+                .count()).isEqualTo(2);
+    }
+    
+    private MvcResult create(String key, String body) throws Exception {
+        var request = post("/api/subscriptions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+        if (key != null) {
+            request.header("Idempotency-Key", key);
+        }
+        return mockMvc.perform(request).andReturn();
+    }
+    
+    private String createBody(Long userId) throws Exception {
+        MembershipPlan plan = planRepository.findByActiveTrue().get(0);
+        return objectMapper.writeValueAsString(new SubscriptionRequest(userId, plan.getId(), true));
+    }
+    
+    private Long createUser() {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Idempotent User");
+        return userRepository.save(user).getId();
+    }
+    
+    private Long subscriptionId(MvcResult result) throws Exception {
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        return body.get("data").get("id").asLong();
+    }
+}
@@ -0,0 +1,64 @@
+package com.firstclub.firstclub.controller;
+
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Creates a subscription over HTTP and scrapes the Prometheus endpoint, checking
+ * that it carries the business subscription counter and the request latency
+ * histogram buckets.
+ * 
+ * Metrics export is off in Spring Boot tests unless observability is switched
+ * back on, so this class does that explicitly.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusMetricsTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Test
+    void prometheusExposesSubscriptionCounterAndRequestHistogram() throws Exception {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Prometheus");
+        user = userRepository.save(user);
+        Long planId = planRepository.findByActiveTrue().get(0).getId();
+        
+        mockMvc.perform(post("/api/subscriptions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + user.getId() + ",\"planId\":" + planId + "}"))
+                .andExpect(status().isCreated());
+        
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        
+        assertThat(scrape)
+                .containsPattern("firstclub_subscriptions_total\\{[^}]*event=\"created\"[^}]*} [1-9]")
+                .containsPattern("http_server_requests_seconds_bucket\\{[^}]*uri=\"/api/subscriptions\"[^}]*le=");
+    }
+}
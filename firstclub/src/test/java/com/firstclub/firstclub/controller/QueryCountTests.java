@@ -0,0 +1,135 @@
+package com.firstclub.firstclub.controller;
+
+import com.firstclub.firstclub.model.Benefit;
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.BenefitRepository;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import com.firstclub.firstclub.service.EntitlementCatalog;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that subscription, benefit and entitlement reads are served by a single
+ * SQL statement regardless of how many rows they return.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class QueryCountTests {
+    
+    private static final int ROWS = 5;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private BenefitRepository benefitRepository;
+    
+    @Autowired
+    private EntitlementCatalog entitlementCatalog;
+    
+    private User user;
+    private Subscription activeSubscription;
+    private MembershipTier tier;
+    private Benefit benefit;
+    
+    @BeforeEach
+    void setUp() {
+        MembershipPlan plan = planRepository.findByActiveTrue().get(0);
+        tier = tierRepository.findByTierLevel(MembershipTier.TierLevel.GOLD).orElseThrow();
+        
+        user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Query Count");
+        user = userRepository.save(user);
+        
+        for (int i = 0; i < ROWS; i++) {
+            Subscription subscription = new Subscription();
+            subscription.setUser(user);
+            subscription.setPlan(plan);
+            subscription.setTier(tier);
+            subscription.setStatus(i == 0 ? Subscription.SubscriptionStatus.ACTIVE
+                    : Subscription.SubscriptionStatus.EXPIRED);
+            subscription.setStartDate(LocalDateTime.now().minusDays(30));
+            subscription.setEndDate(LocalDateTime.now().plusDays(i));
+            subscription = subscriptionRepository.save(subscription);
+            if (i == 0) {
+                activeSubscription = subscription;
+            }
+            
+            Benefit tierBenefit = new Benefit();
+            tierBenefit.setTier(tier);
+            tierBenefit.setName("Benefit " + i);
+            tierBenefit.setBenefitType(Benefit.BenefitType.DISCOUNT);
+            tierBenefit.setValue(String.valueOf(i));
+            benefit = benefitRepository.save(tierBenefit);
+        }
+    }
+    
+    @Test
+    void subscriptionReadsUseOneStatement() throws Exception {
+        assertStatements("/api/subscriptions?limit=" + ROWS);
+        assertStatements("/api/subscriptions/" + activeSubscription.getId());
+        assertStatements("/api/subscriptions/user/" + user.getId());
+        assertStatements("/api/subscriptions/user/" + user.getId() + "/active");
+    }
+    
+    @Test
+    void benefitReadsUseOneStatement() throws Exception {
+        assertStatements("/api/benefits?limit=" + ROWS);
+        assertStatements("/api/benefits/" + benefit.getId());
+        assertStatements("/api/benefits/tier/" + tier.getId());
+        assertStatements("/api/benefits/tier/" + tier.getId() + "/active");
+    }
+    
+    @Test
+    void entitlementReadUsesOneStatement() throws Exception {
+        entitlementCatalog.rebuild();
+        assertStatements("/api/users/" + user.getId() + "/entitlements");
+    }
+    
+    private void assertStatements(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        
+        assertThat(statistics.getPrepareStatementCount())
+                .as("statements for GET %s", url)
+                .isEqualTo(1);
+    }
+}
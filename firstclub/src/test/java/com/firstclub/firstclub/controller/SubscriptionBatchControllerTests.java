@@ -0,0 +1,191 @@
+package com.firstclub.firstclub.controller;
+
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import com.firstclub.firstclub.service.SubscriptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Creates subscriptions in batches and checks that each request is validated and
+ * inserted on its own, so invalid or conflicting requests do not fail the rest.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SubscriptionBatchControllerTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    private MembershipPlan plan;
+    
+    @BeforeEach
+    void setUp() {
+        plan = planRepository.findByActiveTrue().get(0);
+    }
+    
+    @Test
+    void reportsInvalidRequestsAndCreatesTheRest() throws Exception {
+        Long valid = createUser();
+        Long subscribed = createUser();
+        createBatch(List.of(request(subscribed, plan.getId())));
+        
+        String body = "[" +
+                request(valid, plan.getId()) + "," +
+                request(null, plan.getId()) + "," +
+                request(valid, null) + "," +
+                request(Long.MAX_VALUE, plan.getId()) + "," +
+                request(createUser(), Long.MAX_VALUE) + "," +
+                request(subscribed, plan.getId()) + "]";
+        
+        mockMvc.perform(post("/api/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.requested").value(6))
+                .andExpect(jsonPath("$.data.created").value(1))
+                .andExpect(jsonPath("$.data.failed").value(5))
+                .andExpect(jsonPath("$.data.items[0].success").value(true))
+                .andExpect(jsonPath("$.data.items[1].message").value("User ID is required"))
+                .andExpect(jsonPath("$.data.items[2].message").value("Plan ID is required"))
+                .andExpect(jsonPath("$.data.items[3].message").value("User not found with id: " + Long.MAX_VALUE))
+                .andExpect(jsonPath("$.data.items[4].message").value("Plan not found with id: " + Long.MAX_VALUE))
+                .andExpect(jsonPath("$.data.items[5].message").value("User already has an active subscription"));
+        
+        assertThat(subscriptionRepository.findByUserIdAndStatus(valid, Subscription.SubscriptionStatus.ACTIVE))
+                .isPresent();
+    }
+    
+    @Test
+    void createsOneSubscriptionPerUserWithinARequest() throws Exception {
+        Long userId = createUser();
+        
+        mockMvc.perform(post("/api/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + request(userId, plan.getId()) + "," + request(userId, plan.getId()) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.created").value(1))
+                .andExpect(jsonPath("$.data.items[0].success").value(true))
+                .andExpect(jsonPath("$.data.items[1].success").value(false))
+                .andExpect(jsonPath("$.data.items[1].message").value("User already has an active subscription"));
+    }
+    
+    @Test
+    void rejectsEmptyAndOversizedBatches() throws Exception {
+        mockMvc.perform(post("/api/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At least one subscription request is required"));
+        
+        // The size is checked before any request is looked up
+        List<String> requests = Collections.nCopies(SubscriptionService.MAX_BATCH_SIZE + 1, request(1L, 1L));
+        mockMvc.perform(post("/api/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", requests) + "]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message")
+                        .value("Batch size must not exceed " + SubscriptionService.MAX_BATCH_SIZE));
+    }
+    
+    @Test
+    void conflictingRowFailsWithoutFailingItsChunk() throws Exception {
+        Long conflicting = createUser();
+        Long other = createUser();
+        MembershipTier tier = tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER).orElseThrow();
+        
+        // An uncommitted subscription is invisible to validation but holds the unique key
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO subscriptions (id, user_id, plan_id, tier_id, status, start_date, end_date, " +
+                            "active_user_id) VALUES (?, ?, ?, ?, 'ACTIVE', ?, ?, ?)")) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                insert.setLong(1, ThreadLocalRandom.current().nextLong(1_000_000_000L, 2_000_000_000L));
+                insert.setLong(2, conflicting);
+                insert.setLong(3, plan.getId());
+                insert.setLong(4, tier.getId());
+                insert.setTimestamp(5, now);
+                insert.setTimestamp(6, now);
+                insert.setLong(7, conflicting);
+                insert.executeUpdate();
+            }
+            try {
+                mockMvc.perform(post("/api/subscriptions/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[" + request(conflicting, plan.getId()) + "," +
+                                        request(other, plan.getId()) + "]"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.created").value(1))
+                        .andExpect(jsonPath("$.data.items[0].success").value(false))
+                        .andExpect(jsonPath("$.data.items[1].success").value(true));
+            } finally {
+                connection.rollback();
+            }
+        }
+        
+        assertThat(subscriptionRepository.findByUserIdAndStatus(conflicting, Subscription.SubscriptionStatus.ACTIVE))
+                .isEmpty();
+        assertThat(subscriptionRepository.findByUserIdAndStatus(other, Subscription.SubscriptionStatus.ACTIVE))
+                .isPresent();
+    }
+    
+    private void createBatch(List<String> requests) throws Exception {
+        mockMvc.perform(post("/api/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", requests) + "]"))
+                .andExpect(status().isOk());
+    }
+    
+    private Long createUser() {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Batch Create");
+        return userRepository.save(user).getId();
+    }
+    
+    private static String request(Long userId, Long planId) {
+        return "{\"userId\":" + userId + ",\"planId\":" + planId + "}";
+    }
+}
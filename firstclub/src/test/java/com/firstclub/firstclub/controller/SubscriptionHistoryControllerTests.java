@@ -0,0 +1,96 @@
+package com.firstclub.firstclub.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.firstclub.dto.SubscriptionRequest;
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import com.firstclub.firstclub.service.SubscriptionHistoryLog;
+import com.firstclub.firstclub.service.SubscriptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that subscription changes are recorded in the history log and served
+ * per subscription and per user.
+ */
+@SpringBootTest(properties = "firstclub.history-log.directory=target/history-tests/${random.uuid}")
+@AutoConfigureMockMvc
+class SubscriptionHistoryControllerTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private SubscriptionService subscriptionService;
+    
+    @Autowired
+    private SubscriptionHistoryLog historyLog;
+    
+    @Test
+    void recordsChangesPerSubscriptionAndUser() throws Exception {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("History User");
+        Long userId = userRepository.save(user).getId();
+        MembershipPlan plan = planRepository.findByActiveTrue().get(0);
+        
+        Long firstId = subscriptionService.createSubscription(new SubscriptionRequest(userId, plan.getId(), true)).getId();
+        Long secondId = subscriptionService.renewSubscription(firstId).getId();
+        subscriptionService.cancelSubscription(secondId);
+        assertThat(historyLog.flush(5000)).isTrue();
+        
+        List<JsonNode> first = history(get("/api/subscriptions/{id}/history", firstId));
+        assertThat(first).extracting(event -> event.get("event").asText())
+                .containsExactly("CREATED", "RENEWED");
+        assertThat(first).allSatisfy(event -> {
+            assertThat(event.get("subscriptionId").asLong()).isEqualTo(firstId);
+            assertThat(event.get("userId").asLong()).isEqualTo(userId);
+            assertThat(event.get("tierId").isNull()).isFalse();
+            assertThat(event.get("recordedAt").isNull()).isFalse();
+        });
+        
+        List<JsonNode> all = history(get("/api/subscriptions/user/{userId}/history", userId));
+        assertThat(all).extracting(event -> event.get("event").asText() + ":" + event.get("subscriptionId").asLong())
+                .containsExactly("CREATED:" + firstId, "RENEWED:" + firstId,
+                        "CREATED:" + secondId, "CANCELLED:" + secondId);
+        
+        List<JsonNode> latest = history(get("/api/subscriptions/user/{userId}/history", userId).param("limit", "2"));
+        assertThat(latest).extracting(event -> event.get("event").asText())
+                .containsExactly("CREATED", "CANCELLED");
+        
+        assertThat(history(get("/api/subscriptions/{id}/history", Long.MAX_VALUE))).isEmpty();
+    }
+    
+    private List<JsonNode> history(RequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> events = new ArrayList<>();
+        objectMapper.readTree(body).get("data").forEach(events::add);
+        return events;
+    }
+}
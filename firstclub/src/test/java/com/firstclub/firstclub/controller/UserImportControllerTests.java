@@ -0,0 +1,114 @@
+package com.firstclub.firstclub.controller;
+
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports small CSV and NDJSON files across several chunks and checks the
+ * reported counts and rejected rows.
+ */
+@SpringBootTest(properties = "firstclub.user-import.chunk-size=2")
+@AutoConfigureMockMvc
+class UserImportControllerTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Test
+    void importsCsvAndReportsRejectedRows() throws Exception {
+        String prefix = UUID.randomUUID().toString();
+        User existing = new User();
+        existing.setEmail(prefix + "-existing@example.com");
+        existing.setName("Existing");
+        userRepository.save(existing);
+        
+        String csv = "email,name,phone_number\n" +
+                prefix + "-a@example.com,Alice,555-0100\n" +
+                existing.getEmail() + ",Existing Again,\n" +
+                "not-an-email,Bad Email,\n" +
+                "\"" + prefix + "-b@example.com\",\"Bob, Jr.\",\n" +
+                prefix + "-b@example.com,Bob Again,\n" +
+                prefix + "-a@example.com,Alice Again,\n";
+        
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.rows").value(6))
+                .andExpect(jsonPath("$.data.imported").value(2))
+                .andExpect(jsonPath("$.data.duplicates").value(3))
+                .andExpect(jsonPath("$.data.invalid").value(1))
+                .andExpect(jsonPath("$.data.items[*].line").value(contains(3, 4, 6, 7)))
+                .andExpect(jsonPath("$.data.items[1].outcome").value("INVALID"));
+        
+        assertThat(userRepository.findByEmail(prefix + "-a@example.com").orElseThrow().getPhoneNumber())
+                .isEqualTo("555-0100");
+        assertThat(userRepository.findByEmail(prefix + "-b@example.com").orElseThrow().getName())
+                .isEqualTo("Bob, Jr.");
+    }
+    
+    @Test
+    void reportsOtherDatabaseRejectionsAsInvalid() throws Exception {
+        String prefix = UUID.randomUUID().toString();
+        String csv = "email,name\n" +
+                prefix + "-ok@example.com,Fits\n" +
+                prefix + "-long@example.com," + "x".repeat(300) + "\n";
+        
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.imported").value(1))
+                .andExpect(jsonPath("$.data.duplicates").value(0))
+                .andExpect(jsonPath("$.data.invalid").value(1))
+                .andExpect(jsonPath("$.data.items[0].line").value(3))
+                .andExpect(jsonPath("$.data.items[0].outcome").value("INVALID"));
+        
+        assertThat(userRepository.existsByEmail(prefix + "-ok@example.com")).isTrue();
+    }
+    
+    @Test
+    void importsGzippedNdjson() throws Exception {
+        String prefix = UUID.randomUUID().toString();
+        String ndjson = "{\"email\":\"" + prefix + "-1@example.com\",\"name\":\"One\"}\n" +
+                "{\"email\":\"" + prefix + "-2@example.com\",\"name\":\"Two\"}\n" +
+                "{not json}\n" +
+                "{\"email\":\"" + prefix + "-3@example.com\",\"name\":\"Three\"}\n";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(ndjson.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("application/x-ndjson")
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(compressed.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.rows").value(4))
+                .andExpect(jsonPath("$.data.imported").value(3))
+                .andExpect(jsonPath("$.data.invalid").value(1))
+                .andExpect(jsonPath("$.data.items[0].line").value(3));
+        
+        assertThat(userRepository.existsByEmail(prefix + "-3@example.com")).isTrue();
+    }
+}
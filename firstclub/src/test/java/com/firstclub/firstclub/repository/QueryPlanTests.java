@@ -0,0 +1,200 @@
+package com.firstclub.firstclub.repository;
+
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import org.assertj.core.api.SoftAssertions;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+
+/**
+ * Runs {@code EXPLAIN} for the SQL behind every lookup in the subscription, benefit,
+ * tier and user repositories and fails unless H2 reads every table through an index
+ * condition. A table scan, or a full walk of an index used only for its order, shows
+ * up as an access without one.
+ * 
+ * The SQL is captured from Hibernate as it is executed, so the plans reflect the
+ * statements actually sent to the database. Parameters are left unbound; H2 picks
+ * indexes from the predicate shape, not the values.
+ */
+@SpringBootTest
+class QueryPlanTests {
+    
+    /**
+     * Comment marking one table access in an H2 plan, such as
+     * {@code PUBLIC.PRIMARY_KEY_4: ID = ?1}; a scan has no condition after a colon.
+     */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.[\\w.]+(:[^*]*)? \\*/");
+    
+    @Autowired
+    private SqlCapture sqlCapture;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private BenefitRepository benefitRepository;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private final SoftAssertions softly = new SoftAssertions();
+    
+    private User user;
+    private MembershipTier tier;
+    
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Query Plan");
+        user = userRepository.save(user);
+        tier = tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER).orElseThrow();
+    }
+    
+    @AfterEach
+    void reportPlans() {
+        softly.assertAll();
+    }
+    
+    @Test
+    void subscriptionQueriesUseIndexes() {
+        Subscription.SubscriptionStatus active = Subscription.SubscriptionStatus.ACTIVE;
+        LocalDateTime now = LocalDateTime.now();
+        
+        assertIndexed("findByUser", () -> subscriptionRepository.findByUser(user));
+        assertIndexed("findByUserId", () -> subscriptionRepository.findByUserId(user.getId()));
+        assertIndexed("findByUserIdAndStatus", () -> subscriptionRepository.findByUserIdAndStatus(user.getId(), active));
+        assertIndexed("findByStatus", () -> subscriptionRepository.findByStatus(active));
+        assertIndexed("findUserIdById", () -> subscriptionRepository.findUserIdById(1L));
+        assertIndexed("findUserIdsWithStatus", () -> subscriptionRepository.findUserIdsWithStatus(List.of(1L, 2L), active));
+        assertIndexed("findWithAssociationsById", () -> subscriptionRepository.findWithAssociationsById(1L));
+        assertIndexed("findWithAssociationsByIdInAndStatus", () -> subscriptionRepository.findWithAssociationsByIdInAndStatus(List.of(1L, 2L), active));
+        assertIndexed("findDtoById", () -> subscriptionRepository.findDtoById(1L));
+        assertIndexed("findDtoByUserIdAndStatus", () -> subscriptionRepository.findDtoByUserIdAndStatus(user.getId(), active));
+        assertIndexed("findDtoPage", () -> subscriptionRepository.findDtoPage(0L, Limit.of(10)));
+        assertIndexed("findDtoPageByUserId", () -> subscriptionRepository.findDtoPageByUserId(user.getId(), 0L, Limit.of(10)));
+        assertIndexed("findExpiringSoon", () -> subscriptionRepository.findExpiringSoon(active, now, now.minusDays(1), 0L, Limit.of(10)));
+        assertIndexed("findExpiryCandidatesByIds", () -> subscriptionRepository.findExpiryCandidatesByIds(List.of(1L, 2L), active, now));
+    }
+    
+    @Test
+    void benefitQueriesUseIndexes() {
+        assertIndexed("findByTier", () -> benefitRepository.findByTier(tier));
+        assertIndexed("findByTierId", () -> benefitRepository.findByTierId(tier.getId()));
+        assertIndexed("findByTierIdAndActive", () -> benefitRepository.findByTierIdAndActive(tier.getId(), true));
+        assertIndexed("findWithTierById", () -> benefitRepository.findWithTierById(1L));
+        assertIndexed("findDtoById", () -> benefitRepository.findDtoById(1L));
+        assertIndexed("findDtoByTierId", () -> benefitRepository.findDtoByTierId(tier.getId()));
+        assertIndexed("findDtoByTierIdAndActive", () -> benefitRepository.findDtoByTierIdAndActive(tier.getId(), true));
+        assertIndexed("findDtoPage", () -> benefitRepository.findDtoPage(0L, Limit.of(10)));
+        assertIndexed("findDtoByActive", () -> benefitRepository.findDtoByActive(true));
+    }
+    
+    @Test
+    void tierQueriesUseIndexes() {
+        assertIndexed("findByActiveTrue", () -> tierRepository.findByActiveTrue());
+        assertIndexed("findByTierLevel", () -> tierRepository.findByTierLevel(MembershipTier.TierLevel.GOLD));
+        assertIndexed("findByIdGreaterThanOrderByIdAsc", () -> tierRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10)));
+        assertIndexed("findEligibleTiers", () -> tierRepository.findEligibleTiers(10, 50000L));
+    }
+    
+    @Test
+    void userQueriesUseIndexes() {
+        assertIndexed("findByEmail", () -> userRepository.findByEmail(user.getEmail()));
+        assertIndexed("existsByEmail", () -> userRepository.existsByEmail(user.getEmail()));
+        assertIndexed("findByIdGreaterThanOrderByIdAsc", () -> userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10)));
+    }
+    
+    private void assertIndexed(String name, Runnable query) {
+        List<String> statements = sqlCapture.capture(query);
+        softly.assertThat(statements).as("SQL issued by %s", name).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            List<String> accesses = TABLE_ACCESS.matcher(plan).results().map(MatchResult::group).toList();
+            softly.assertThat(accesses)
+                    .as("table accesses for %s:%n%s", name, plan)
+                    .isNotEmpty()
+                    .allMatch(access -> access.contains(":"));
+        }
+    }
+    
+    private String explain(String sql) {
+        return jdbcTemplate.query(
+                connection -> connection.prepareStatement("EXPLAIN " + sql),
+                rs -> {
+                    StringBuilder plan = new StringBuilder();
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                    return plan.toString();
+                });
+    }
+    
+    /**
+     * Statement inspector that records the SELECT statements Hibernate prepares
+     * while a capture is in progress.
+     */
+    static class SqlCapture implements StatementInspector {
+        
+        private final List<String> statements = new ArrayList<>();
+        private volatile boolean capturing;
+        
+        synchronized List<String> capture(Runnable query) {
+            statements.clear();
+            capturing = true;
+            try {
+                query.run();
+            } finally {
+                capturing = false;
+            }
+            return new ArrayList<>(statements);
+        }
+        
+        @Override
+        public String inspect(String sql) {
+            if (capturing && sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+    
+    @TestConfiguration
+    static class SqlCaptureConfig {
+        
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+        
+        @Bean
+        HibernatePropertiesCustomizer sqlCaptureCustomizer(SqlCapture sqlCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlCapture);
+        }
+    }
+}
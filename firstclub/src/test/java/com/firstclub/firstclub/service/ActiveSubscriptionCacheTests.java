@@ -0,0 +1,81 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.dto.SubscriptionDTO;
+import com.firstclub.firstclub.dto.SubscriptionRequest;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Caches a user's active subscription, then checks that cancelling, upgrading
+ * and renewing it through {@link SubscriptionService} replace the cached entry.
+ */
+@SpringBootTest
+class ActiveSubscriptionCacheTests {
+    
+    @Autowired
+    private SubscriptionService subscriptionService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    private User user;
+    private SubscriptionDTO subscription;
+    
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Active Cache");
+        user = userRepository.save(user);
+        
+        SubscriptionRequest request = new SubscriptionRequest();
+        request.setUserId(user.getId());
+        request.setPlanId(planRepository.findByActiveTrue().get(0).getId());
+        subscription = subscriptionService.createSubscription(request);
+        assertThat(subscriptionService.getActiveSubscription(user.getId()).getId()).isEqualTo(subscription.getId());
+    }
+    
+    @Test
+    void cancelEvictsActiveSubscription() {
+        subscriptionService.cancelSubscription(subscription.getId());
+        
+        assertThatThrownBy(() -> subscriptionService.getActiveSubscription(user.getId()))
+                .hasMessage("No active subscription found for user");
+    }
+    
+    @Test
+    void upgradeReplacesCachedTier() {
+        assertThat(subscriptionService.getActiveSubscription(user.getId()).getTierName()).isEqualTo("Silver");
+        
+        // Order stats do not touch the cached subscription, so it still shows the old tier
+        user.setTotalOrderCount(10);
+        user.setTotalOrderValue(50_000L);
+        userRepository.save(user);
+        assertThat(subscriptionService.getActiveSubscription(user.getId()).getTierName()).isEqualTo("Silver");
+        
+        subscriptionService.upgradeTier(subscription.getId());
+        
+        assertThat(subscriptionService.getActiveSubscription(user.getId()).getTierName()).isEqualTo("Gold");
+    }
+    
+    @Test
+    void renewReplacesCachedSubscription() {
+        SubscriptionDTO renewed = subscriptionService.renewSubscription(subscription.getId());
+        
+        assertThat(renewed.getId()).isNotEqualTo(subscription.getId());
+        assertThat(subscriptionService.getActiveSubscription(user.getId()).getId()).isEqualTo(renewed.getId());
+    }
+}
@@ -0,0 +1,164 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sweeps due subscriptions across several keyset pages, including end dates that
+ * tie across a page boundary, and expires a chunk in which one subscription is
+ * cancelled between being read and being updated.
+ * 
+ * Runs against its own database with the scheduled sweep and the expiry wheel
+ * turned off, so each sweep sees only the subscriptions created here.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:expiry-sweep;NON_KEYWORDS=VALUE",
+        "firstclub.expiry-sweep.chunk-size=3",
+        "firstclub.expiry-sweep.cron=-",
+        "firstclub.expiry-wheel.enabled=false",
+        "firstclub.expiry-wheel.refill-cron=-",
+        "firstclub.expiry-wheel.poll-interval-ms=3600000"
+})
+class ExpirySweepEngineTests {
+    
+    @Autowired
+    private ExpirySweepEngine expirySweepEngine;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    private MembershipPlan plan;
+    private MembershipTier tier;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM subscriptions");
+        plan = planRepository.findByActiveTrue().get(0);
+        tier = tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER).orElseThrow();
+    }
+    
+    @Test
+    void sweepPagesThroughEveryDueSubscriptionOnce() {
+        LocalDateTime tied = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Long> due = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Rows 2 to 4 share an end date, so a page boundary falls between equal dates
+            LocalDateTime endDate = i >= 2 && i <= 4 ? tied : tied.minusMinutes(10 - i);
+            due.add(createSubscription(endDate));
+        }
+        Long notDue = createSubscription(LocalDateTime.now().plusDays(1));
+        
+        ExpirySweepEngine.SweepResult result = expirySweepEngine.sweep();
+        
+        assertThat(result.getScanned()).isEqualTo(7);
+        assertThat(result.getExpired()).isEqualTo(7);
+        assertThat(result.getFailed()).isZero();
+        assertThat(subscriptionRepository.findAllById(due))
+                .allSatisfy(s -> assertThat(s.getStatus()).isEqualTo(Subscription.SubscriptionStatus.EXPIRED));
+        assertThat(subscriptionRepository.findById(notDue).orElseThrow().getStatus())
+                .isEqualTo(Subscription.SubscriptionStatus.ACTIVE);
+        
+        assertThat(expirySweepEngine.sweep().getScanned()).isZero();
+    }
+    
+    @Test
+    void chunkIsExpiredRowByRowWhenOneWasCancelledMeanwhile() throws Exception {
+        LocalDateTime endDate = LocalDateTime.now().minusHours(1);
+        List<Long> due = List.of(createSubscription(endDate), createSubscription(endDate), createSubscription(endDate));
+        Long cancelled = due.get(1);
+        
+        ExpirySweepEngine.SweepResult result;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement cancel = connection.prepareStatement(
+                    "UPDATE subscriptions SET status = 'CANCELLED', active_user_id = NULL WHERE id = ?")) {
+                cancel.setLong(1, cancelled);
+                cancel.executeUpdate();
+            }
+            
+            // The sweep reads the committed, still active row and then waits on its lock
+            CompletableFuture<ExpirySweepEngine.SweepResult> sweep =
+                    CompletableFuture.supplyAsync(expirySweepEngine::sweep);
+            awaitBlockedSession();
+            connection.commit();
+            result = sweep.get(30, TimeUnit.SECONDS);
+        }
+        
+        assertThat(result.getScanned()).isEqualTo(3);
+        assertThat(result.getExpired()).isEqualTo(2);
+        assertThat(result.getFailed()).isZero();
+        assertThat(subscriptionRepository.findById(cancelled).orElseThrow().getStatus())
+                .isEqualTo(Subscription.SubscriptionStatus.CANCELLED);
+        assertThat(subscriptionRepository.findAllById(List.of(due.get(0), due.get(2))))
+                .allSatisfy(s -> assertThat(s.getStatus()).isEqualTo(Subscription.SubscriptionStatus.EXPIRED));
+    }
+    
+    private void awaitBlockedSession() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Integer blocked = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL", Integer.class);
+            if (blocked != null && blocked > 0) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Sweep never waited on the cancelled row");
+    }
+    
+    private Long createSubscription(LocalDateTime endDate) {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Expiry Sweep");
+        user = userRepository.save(user);
+        
+        Subscription subscription = new Subscription();
+        subscription.setUser(user);
+        subscription.setPlan(plan);
+        subscription.setTier(tier);
+        subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+        subscription.setStartDate(endDate.minusDays(plan.getDurationInDays()));
+        subscription.setEndDate(endDate);
+        subscription.setAutoRenew(false);
+        return subscriptionRepository.save(subscription).getId();
+    }
+}
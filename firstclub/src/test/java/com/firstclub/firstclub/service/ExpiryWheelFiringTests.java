@@ -0,0 +1,108 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a subscription loaded into the expiry wheel is expired by the
+ * scheduled poll shortly after its end date, even while a refill is running on
+ * another scheduler thread.
+ */
+@SpringBootTest
+class ExpiryWheelFiringTests {
+    
+    @Autowired
+    private SubscriptionExpiryWheel expiryWheel;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private TaskScheduler taskScheduler;
+    
+    @Test
+    void expiresSubscriptionSoonAfterEndDate() throws InterruptedException {
+        Long subscriptionId = createSubscriptionEndingSoon();
+        assertThat(expiryWheel.refill()).isPositive();
+        
+        assertThat(awaitExpiry(subscriptionId)).isEqualTo(Subscription.SubscriptionStatus.EXPIRED);
+    }
+    
+    @Test
+    void slowRefillDoesNotDelayPoll() throws InterruptedException {
+        Long subscriptionId = createSubscriptionEndingSoon();
+        assertThat(expiryWheel.refill()).isPositive();
+        
+        CountDownLatch refilling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        taskScheduler.schedule(() -> {
+            refilling.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            expiryWheel.scheduledRefill();
+        }, Instant.now());
+        try {
+            assertThat(refilling.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(awaitExpiry(subscriptionId)).isEqualTo(Subscription.SubscriptionStatus.EXPIRED);
+        } finally {
+            release.countDown();
+        }
+    }
+    
+    private Long createSubscriptionEndingSoon() {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Expiry Wheel");
+        user = userRepository.save(user);
+        
+        MembershipPlan plan = planRepository.findByActiveTrue().get(0);
+        Subscription subscription = new Subscription();
+        subscription.setUser(user);
+        subscription.setPlan(plan);
+        subscription.setTier(tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER).orElseThrow());
+        subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+        subscription.setStartDate(LocalDateTime.now().minusDays(30));
+        subscription.setEndDate(LocalDateTime.now().plusSeconds(1));
+        subscription.setAutoRenew(false);
+        return subscriptionRepository.save(subscription).getId();
+    }
+    
+    private Subscription.SubscriptionStatus awaitExpiry(Long subscriptionId) throws InterruptedException {
+        Subscription.SubscriptionStatus status = Subscription.SubscriptionStatus.ACTIVE;
+        for (int attempt = 0; attempt < 50 && status == Subscription.SubscriptionStatus.ACTIVE; attempt++) {
+            Thread.sleep(100);
+            status = subscriptionRepository.findById(subscriptionId).orElseThrow().getStatus();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,118 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that duplicates neither hang on a first request that failed with an
+ * error nor wait longer than the in-flight timeout, and that a key whose first
+ * request is still running outlives the TTL.
+ */
+class IdempotencyStoreTests {
+    
+    @Test
+    void errorIsPassedToDuplicatesAndForgotten() throws Exception {
+        IdempotencyStore store = store(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> store.execute("key", "request", () -> {
+            started.countDown();
+            await(fail);
+            throw new StackOverflowError("boom");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        AtomicReference<Throwable> duplicateFailure = new AtomicReference<>();
+        Thread duplicate = Thread.ofPlatform().start(() -> {
+            try {
+                store.execute("key", "request", () -> "ran twice");
+            } catch (Throwable e) {
+                duplicateFailure.set(e);
+            }
+        });
+        while (duplicate.getState() != Thread.State.TIMED_WAITING && duplicate.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        fail.countDown();
+        
+        duplicate.join(5000);
+        assertThat(duplicateFailure.get()).isInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(store.execute("key", "request", () -> "retried")).isEqualTo("retried");
+    }
+    
+    @Test
+    void duplicateGivesUpAfterInFlightTimeout() throws Exception {
+        IdempotencyStore store = store(Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> store.execute("key", "request", () -> {
+            started.countDown();
+            await(finish);
+            return "first";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        try {
+            assertThatThrownBy(() -> store.execute("key", "request", () -> "ran twice"))
+                    .isInstanceOf(IdempotencyStore.InProgressException.class);
+        } finally {
+            finish.countDown();
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(store.execute("key", "request", () -> "ran twice")).isEqualTo("first");
+    }
+    
+    @Test
+    void inFlightKeyOutlivesTtl() throws Exception {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setInFlightTimeout(Duration.ofMillis(50));
+        properties.setTtl(Duration.ofMillis(100));
+        IdempotencyStore store = new IdempotencyStore(properties, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> store.execute("key", "request", () -> {
+            started.countDown();
+            await(finish);
+            return "first";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(250);
+        
+        try {
+            assertThatThrownBy(() -> store.execute("key", "request", () -> "ran twice"))
+                    .isInstanceOf(IdempotencyStore.InProgressException.class);
+        } finally {
+            finish.countDown();
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        
+        // Once done, the entry expires as usual
+        Thread.sleep(250);
+        assertThat(store.execute("key", "request", () -> "again")).isEqualTo("again");
+    }
+    
+    private static IdempotencyStore store(Duration inFlightTimeout) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setInFlightTimeout(inFlightTimeout);
+        return new IdempotencyStore(properties, new SimpleMeterRegistry());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.OrderStatsProperties;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a write-through order leaves all of the user's orders in the
+ * database, even while other flushes run concurrently, that unknown users are
+ * rejected, and that one bad row does not hold back the rest of its stripe.
+ */
+@SpringBootTest(properties = {
+        "firstclub.order-stats.flush-interval-ms=3600000",
+        "firstclub.tier-reevaluation.interval-ms=3600000"
+})
+class OrderStatsAccumulatorTests {
+    
+    @Autowired
+    private OrderStatsAccumulator orderStatsAccumulator;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private OrderStatsProperties orderStatsProperties;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void bufferedOrderRejectsUnknownUser() {
+        assertThat(orderStatsAccumulator.record(Long.MAX_VALUE, 10)).isFalse();
+        
+        Long userId = createUser();
+        userRepository.deleteById(userId);
+        orderStatsAccumulator.forget(userId);
+        assertThat(orderStatsAccumulator.record(userId, 10)).isFalse();
+    }
+    
+    @Test
+    void failingRowIsDroppedWithoutBlockingItsStripe() {
+        Long overflowing = createUser();
+        jdbcTemplate.update("UPDATE users SET total_order_count = ? WHERE id = ?", Integer.MAX_VALUE, overflowing);
+        int stripes = orderStatsProperties.getStripes();
+        Long neighbour = createUser();
+        while (neighbour % stripes != overflowing % stripes) {
+            neighbour = createUser();
+        }
+        
+        assertThat(orderStatsAccumulator.record(overflowing, 10)).isTrue();
+        assertThat(orderStatsAccumulator.record(neighbour, 10)).isTrue();
+        orderStatsAccumulator.flush();
+        
+        assertThat(userRepository.findById(neighbour).orElseThrow().getTotalOrderCount()).isEqualTo(1);
+        assertThat(userRepository.findById(overflowing).orElseThrow().getTotalOrderCount())
+                .isEqualTo(Integer.MAX_VALUE);
+        
+        // The dropped row is not re-queued, so the stripe keeps flushing
+        assertThat(orderStatsAccumulator.recordAndFlush(neighbour, 10)).isTrue();
+        assertThat(userRepository.findById(neighbour).orElseThrow().getTotalOrderCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void writeThroughIncludesEarlierOrdersDespiteConcurrentFlushes() throws InterruptedException {
+        Long userId = createUser();
+        
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                orderStatsAccumulator.flush();
+            }
+        });
+        try {
+            for (int round = 1; round <= 50; round++) {
+                orderStatsAccumulator.record(userId, 10);
+                assertThat(orderStatsAccumulator.recordAndFlush(userId, 10)).isTrue();
+                
+                User stored = userRepository.findById(userId).orElseThrow();
+                assertThat(stored.getTotalOrderCount()).isEqualTo(round * 2);
+                assertThat(stored.getTotalOrderValue()).isEqualTo(round * 20L);
+            }
+        } finally {
+            running.set(false);
+            flusher.join();
+        }
+    }
+    
+    @Test
+    void writeThroughReportsUnknownUser() {
+        assertThat(orderStatsAccumulator.recordAndFlush(Long.MAX_VALUE, 10)).isFalse();
+    }
+    
+    private Long createUser() {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Order Stats");
+        return userRepository.save(user).getId();
+    }
+}
@@ -0,0 +1,139 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.dto.MembershipPlanDTO;
+import com.firstclub.firstclub.dto.SubscriptionRequest;
+import com.firstclub.firstclub.dto.UserDTO;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against two H2 databases, one acting as the replica. Nothing replicates
+ * between them, so a read shows which database served it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;NON_KEYWORDS=VALUE",
+        "firstclub.datasource.replica.url=" + ReadReplicaRoutingTests.REPLICA_URL,
+        "firstclub.datasource.replica.staleness-window=500ms"
+})
+class ReadReplicaRoutingTests {
+    
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+    
+    private static final long REPLICA_USER_ID = 900_001L;
+    
+    @Autowired
+    private MembershipPlanService planService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private SubscriptionService subscriptionService;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    
+    private JdbcTemplate replica;
+    
+    @BeforeEach
+    void setUpReplica() {
+        DataSource replicaDataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("DELETE FROM subscriptions");
+        replica.update("DELETE FROM users");
+        replica.update("DELETE FROM membership_tiers");
+        replica.update("DELETE FROM membership_plans");
+        replica.update("INSERT INTO membership_plans (name, plan_type, price, duration_in_days, active) " +
+                "VALUES ('Replica Plan', 'MONTHLY', 1, 30, TRUE)");
+        replica.update("INSERT INTO membership_tiers (id, name, tier_level, active) " +
+                "VALUES (?, 'Replica Tier', 'SILVER', TRUE)", REPLICA_USER_ID);
+        replica.update("INSERT INTO users (id, email, name) VALUES (?, 'replica@example.com', 'Replica User')",
+                REPLICA_USER_ID);
+        replica.update("INSERT INTO subscriptions (id, user_id, plan_id, tier_id, status, start_date, end_date, " +
+                "active_user_id) SELECT ?, ?, id, ?, 'ACTIVE', CURRENT_TIMESTAMP, DATEADD('DAY', 30, " +
+                "CURRENT_TIMESTAMP), ? FROM membership_plans", REPLICA_USER_ID, REPLICA_USER_ID, REPLICA_USER_ID,
+                REPLICA_USER_ID);
+    }
+    
+    @Test
+    void readOnlyWorkGoesToReplica() {
+        assertThat(planService.getActivePlans())
+                .extracting(MembershipPlanDTO::getName)
+                .containsExactly("Replica Plan");
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT COUNT(*) FROM membership_plans WHERE name = 'Replica Plan'", Integer.class))
+                .isZero();
+    }
+    
+    @Test
+    void activeSubscriptionCacheMissGoesToReplica() {
+        assertThat(subscriptionService.getActiveSubscription(REPLICA_USER_ID).getPlanName())
+                .isEqualTo("Replica Plan");
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT COUNT(*) FROM subscriptions WHERE user_id = ?", Integer.class, REPLICA_USER_ID))
+                .isZero();
+    }
+    
+    @Test
+    void recentWritesAreReadFromPrimaryUntilWindowPasses() throws InterruptedException {
+        UserDTO request = new UserDTO();
+        request.setEmail(UUID.randomUUID() + "@example.com");
+        request.setName("Read Your Writes");
+        Long userId = userService.createUser(request).getId();
+        
+        assertThat(userService.getUserById(userId).getEmail()).isEqualTo(request.getEmail());
+        
+        Thread.sleep(1000);
+        assertThatThrownBy(() -> userService.getUserById(userId))
+                .hasMessageContaining("User not found");
+    }
+    
+    @Test
+    void writeThroughOrderStatsAreReadFromPrimary() throws InterruptedException {
+        UserDTO request = new UserDTO();
+        request.setEmail(UUID.randomUUID() + "@example.com");
+        request.setName("Synchronous Order");
+        Long userId = userService.createUser(request).getId();
+        Thread.sleep(1000);
+        
+        userService.updateUserOrderStats(userId, 250L, true);
+        
+        assertThat(userService.getUserById(userId).getTotalOrderValue()).isEqualTo(250L);
+    }
+    
+    @Test
+    void batchCreatedSubscriptionIsReadFromPrimary() throws InterruptedException {
+        UserDTO user = new UserDTO();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Batch Member");
+        Long userId = userService.createUser(user).getId();
+        Thread.sleep(1000);
+        
+        SubscriptionRequest request = new SubscriptionRequest();
+        request.setUserId(userId);
+        request.setPlanId(planRepository.findByActiveTrue().get(0).getId());
+        assertThat(subscriptionService.createSubscriptions(List.of(request)).getItems())
+                .allSatisfy(item -> assertThat(item.isSuccess()).isTrue());
+        
+        assertThat(subscriptionService.getActiveSubscription(userId).getUserId()).isEqualTo(userId);
+    }
+}
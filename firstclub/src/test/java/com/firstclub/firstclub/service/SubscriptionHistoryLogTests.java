@@ -0,0 +1,135 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.HistoryLogProperties;
+import com.firstclub.firstclub.dto.SubscriptionHistoryDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the history log rolls segments and rebuilds its index on restart
+ * from the latest checkpoint and the segments after it, or from every segment
+ * if the checkpoint is damaged, stopping at a damaged record.
+ */
+class SubscriptionHistoryLogTests {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void recoversHistoryAcrossSegmentsOnRestart() throws IOException {
+        LocalDateTime endDate = LocalDateTime.of(2030, 1, 31, 12, 30, 15, 250_000_000);
+        SubscriptionHistoryLog historyLog = new SubscriptionHistoryLog(properties());
+        historyLog.record(SubscriptionHistoryDTO.Event.CREATED, 1, 10, 1L, endDate);
+        historyLog.record(SubscriptionHistoryDTO.Event.CREATED, 2, 20, 1L, endDate);
+        historyLog.record(SubscriptionHistoryDTO.Event.UPGRADED, 1, 10, 2L, endDate);
+        historyLog.record(SubscriptionHistoryDTO.Event.RENEWED, 1, 10, 2L, endDate);
+        historyLog.record(SubscriptionHistoryDTO.Event.CREATED, 3, 10, null, null);
+        assertThat(historyLog.flush(5000)).isTrue();
+        historyLog.close();
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(checkpointFiles()).singleElement()
+                .satisfies(file -> assertThat(HistoryCheckpoint.endOf(file)).isEqualTo(4));
+        
+        SubscriptionHistoryLog reopened = new SubscriptionHistoryLog(properties());
+        try {
+            // The two sealed segments are covered by the checkpoint
+            assertThat(reopened.getScannedOnRecovery()).isEqualTo(1);
+            List<SubscriptionHistoryDTO> subscription = reopened.getSubscriptionHistory(1L, null);
+            assertThat(subscription).extracting(SubscriptionHistoryDTO::getEvent).containsExactly(
+                    SubscriptionHistoryDTO.Event.CREATED,
+                    SubscriptionHistoryDTO.Event.UPGRADED,
+                    SubscriptionHistoryDTO.Event.RENEWED);
+            assertThat(subscription).extracting(SubscriptionHistoryDTO::getTierId).containsExactly(1L, 2L, 2L);
+            assertThat(subscription.get(0).getEndDate()).isEqualTo(endDate);
+            
+            assertThat(reopened.getUserHistory(10L, null)).extracting(SubscriptionHistoryDTO::getSubscriptionId)
+                    .containsExactly(1L, 1L, 1L, 3L);
+            assertThat(reopened.getUserHistory(10L, null).get(3).getTierId()).isNull();
+            
+            reopened.record(SubscriptionHistoryDTO.Event.CANCELLED, 2, 20, 1L, endDate);
+            assertThat(reopened.flush(5000)).isTrue();
+            assertThat(reopened.getUserHistory(20L, null)).extracting(SubscriptionHistoryDTO::getEvent)
+                    .containsExactly(SubscriptionHistoryDTO.Event.CREATED, SubscriptionHistoryDTO.Event.CANCELLED);
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    @Test
+    void scansEverySegmentWhenCheckpointIsDamaged() throws IOException {
+        SubscriptionHistoryLog historyLog = new SubscriptionHistoryLog(properties());
+        historyLog.record(SubscriptionHistoryDTO.Event.CREATED, 1, 10, 1L, null);
+        historyLog.record(SubscriptionHistoryDTO.Event.UPGRADED, 1, 10, 2L, null);
+        historyLog.record(SubscriptionHistoryDTO.Event.RENEWED, 1, 10, 2L, null);
+        assertThat(historyLog.flush(5000)).isTrue();
+        historyLog.close();
+        
+        try (FileChannel channel = FileChannel.open(checkpointFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 20);
+        }
+        
+        SubscriptionHistoryLog reopened = new SubscriptionHistoryLog(properties());
+        try {
+            assertThat(reopened.getScannedOnRecovery()).isEqualTo(3);
+            assertThat(reopened.getSubscriptionHistory(1L, null)).extracting(SubscriptionHistoryDTO::getEvent)
+                    .containsExactly(SubscriptionHistoryDTO.Event.CREATED, SubscriptionHistoryDTO.Event.UPGRADED,
+                            SubscriptionHistoryDTO.Event.RENEWED);
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    @Test
+    void stopsAtDamagedRecordOnRecovery() throws IOException {
+        SubscriptionHistoryLog historyLog = new SubscriptionHistoryLog(properties());
+        historyLog.record(SubscriptionHistoryDTO.Event.CREATED, 1, 10, 1L, null);
+        historyLog.record(SubscriptionHistoryDTO.Event.CANCELLED, 1, 10, 1L, null);
+        assertThat(historyLog.flush(5000)).isTrue();
+        historyLog.close();
+        
+        // Flip a byte of the second record, as a torn write would
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), HistorySegment.RECORD_SIZE + 8);
+        }
+        
+        SubscriptionHistoryLog reopened = new SubscriptionHistoryLog(properties());
+        try {
+            assertThat(reopened.getSubscriptionHistory(1L, null)).extracting(SubscriptionHistoryDTO::getEvent)
+                    .containsExactly(SubscriptionHistoryDTO.Event.CREATED);
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    private HistoryLogProperties properties() {
+        HistoryLogProperties properties = new HistoryLogProperties();
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(DataSize.ofBytes(2L * HistorySegment.RECORD_SIZE));
+        return properties;
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(HistorySegment::isSegment).sorted().toList();
+        }
+    }
+    
+    private List<Path> checkpointFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(HistoryCheckpoint::isCheckpoint).sorted().toList();
+        }
+    }
+}
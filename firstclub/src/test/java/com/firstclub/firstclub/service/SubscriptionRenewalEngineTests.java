@@ -0,0 +1,125 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Renews a set of due subscriptions spanning several chunks, with one that was
+ * cancelled in the meantime, and expires one whose plan was deactivated.
+ */
+@SpringBootTest
+class SubscriptionRenewalEngineTests {
+    
+    @Autowired
+    private SubscriptionRenewalEngine renewalEngine;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Test
+    void renewsDueSubscriptionsInBulk() {
+        MembershipPlan plan = planRepository.findByActiveTrue().get(0);
+        MembershipTier tier = tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER).orElseThrow();
+        int rows = SubscriptionRenewalEngine.CHUNK_SIZE + 3;
+        List<Long> ids = new ArrayList<>();
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i <= rows; i++) {
+            User user = new User();
+            user.setEmail(UUID.randomUUID() + "@example.com");
+            user.setName("Renewal");
+            user = userRepository.save(user);
+            
+            Subscription subscription = new Subscription();
+            subscription.setUser(user);
+            subscription.setPlan(plan);
+            subscription.setTier(tier);
+            subscription.setStatus(i == rows ? Subscription.SubscriptionStatus.CANCELLED
+                    : Subscription.SubscriptionStatus.ACTIVE);
+            subscription.setStartDate(LocalDateTime.now().minusDays(plan.getDurationInDays()));
+            subscription.setEndDate(LocalDateTime.now().minusMinutes(1));
+            subscription.setAutoRenew(true);
+            ids.add(subscriptionRepository.save(subscription).getId());
+            userIds.add(user.getId());
+        }
+        
+        SubscriptionRenewalEngine.RenewalResult result = renewalEngine.renew(ids);
+        
+        assertThat(result.getRenewed()).isEqualTo(rows);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        assertThat(result.getFailed()).isZero();
+        assertThat(subscriptionRepository.findAllById(ids.subList(0, rows)))
+                .allSatisfy(old -> assertThat(old.getStatus()).isEqualTo(Subscription.SubscriptionStatus.EXPIRED));
+        for (Long userId : List.of(userIds.get(0), userIds.get(rows - 1))) {
+            Subscription successor = subscriptionRepository
+                    .findByUserIdAndStatus(userId, Subscription.SubscriptionStatus.ACTIVE)
+                    .orElseThrow();
+            assertThat(successor.getEndDate()).isAfter(LocalDateTime.now().plusDays(plan.getDurationInDays() - 1));
+            assertThat(successor.getAutoRenew()).isTrue();
+        }
+        assertThat(subscriptionRepository.findByUserIdAndStatus(userIds.get(rows), Subscription.SubscriptionStatus.ACTIVE))
+                .isEmpty();
+        
+        assertThat(renewalEngine.renew(ids.subList(0, 2)).getSkipped()).isEqualTo(2);
+    }
+    
+    @Test
+    void expiresSubscriptionsWhosePlanWasDeactivated() {
+        MembershipPlan plan = new MembershipPlan();
+        plan.setName("Retired " + UUID.randomUUID());
+        plan.setPlanType(MembershipPlan.PlanType.MONTHLY);
+        plan.setPrice(100L);
+        plan.setDurationInDays(30);
+        plan.setActive(false);
+        plan = planRepository.save(plan);
+        
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Retired Plan");
+        user = userRepository.save(user);
+        
+        Subscription subscription = new Subscription();
+        subscription.setUser(user);
+        subscription.setPlan(plan);
+        subscription.setTier(tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER).orElseThrow());
+        subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+        subscription.setStartDate(LocalDateTime.now().minusDays(30));
+        subscription.setEndDate(LocalDateTime.now().minusMinutes(1));
+        subscription.setAutoRenew(true);
+        Long subscriptionId = subscriptionRepository.save(subscription).getId();
+        
+        SubscriptionRenewalEngine.RenewalResult result = renewalEngine.renew(List.of(subscriptionId));
+        
+        assertThat(result.getExpired()).isEqualTo(1);
+        assertThat(result.getRenewed()).isZero();
+        assertThat(result.getFailed()).isZero();
+        assertThat(subscriptionRepository.findById(subscriptionId).orElseThrow().getStatus())
+                .isEqualTo(Subscription.SubscriptionStatus.EXPIRED);
+        assertThat(subscriptionRepository.findByUserIdAndStatus(user.getId(), Subscription.SubscriptionStatus.ACTIVE))
+                .isEmpty();
+    }
+}
@@ -0,0 +1,99 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks tier selection against an in-memory set of tiers: thresholds are
+ * inclusive and both must be met, inactive tiers are skipped, and Silver is the
+ * fallback when no active tier matches.
+ */
+class TierEligibilityIndexTests {
+    
+    private final List<MembershipTier> tiers = new ArrayList<>();
+    
+    private final TierEligibilityIndex index = new TierEligibilityIndex(repository());
+    
+    @Test
+    void picksHighestTierWhoseThresholdsAreBothMet() {
+        tiers.add(tier("Silver", MembershipTier.TierLevel.SILVER, 0, 0L));
+        tiers.add(tier("Gold", MembershipTier.TierLevel.GOLD, 10, 50_000L));
+        tiers.add(tier("Platinum", MembershipTier.TierLevel.PLATINUM, 25, 100_000L));
+        
+        assertThat(index.findBestTier(null, null).getName()).isEqualTo("Silver");
+        assertThat(index.findBestTier(10, 50_000L).getName()).isEqualTo("Gold");
+        assertThat(index.findBestTier(9, 50_000L).getName()).isEqualTo("Silver");
+        assertThat(index.findBestTier(10, 49_999L).getName()).isEqualTo("Silver");
+        assertThat(index.findBestTier(25, 100_000L).getName()).isEqualTo("Platinum");
+        assertThat(index.findBestTier(24, 1_000_000L).getName()).isEqualTo("Gold");
+    }
+    
+    @Test
+    void skipsInactiveTiersAfterRebuild() {
+        tiers.add(tier("Silver", MembershipTier.TierLevel.SILVER, 0, 0L));
+        tiers.add(tier("Gold", MembershipTier.TierLevel.GOLD, 10, 50_000L));
+        MembershipTier platinum = tier("Platinum", MembershipTier.TierLevel.PLATINUM, 25, 100_000L);
+        tiers.add(platinum);
+        assertThat(index.findBestTier(30, 200_000L).getName()).isEqualTo("Platinum");
+        
+        platinum.setActive(false);
+        assertThat(index.findBestTier(30, 200_000L).getName()).isEqualTo("Platinum");
+        index.rebuild();
+        assertThat(index.findBestTier(30, 200_000L).getName()).isEqualTo("Gold");
+    }
+    
+    @Test
+    void fallsBackToSilverWhenNoActiveTierMatches() {
+        MembershipTier silver = tier("Silver", MembershipTier.TierLevel.SILVER, 0, 0L);
+        silver.setActive(false);
+        tiers.add(silver);
+        tiers.add(tier("Gold", MembershipTier.TierLevel.GOLD, 10, 50_000L));
+        
+        assertThat(index.findBestTier(0, 0L)).isSameAs(silver);
+        assertThat(index.findBestTier(10, 50_000L).getName()).isEqualTo("Gold");
+    }
+    
+    @Test
+    void loadsAgainUntilSilverExists() {
+        tiers.add(tier("Gold", MembershipTier.TierLevel.GOLD, 10, 50_000L));
+        assertThat(index.findBestTier(10, 50_000L).getName()).isEqualTo("Gold");
+        assertThatThrownBy(() -> index.findBestTier(0, 0L)).hasMessage("Default tier not found");
+        
+        tiers.add(tier("Silver", MembershipTier.TierLevel.SILVER, 0, 0L));
+        assertThat(index.findBestTier(0, 0L).getName()).isEqualTo("Silver");
+    }
+    
+    private MembershipTierRepository repository() {
+        return (MembershipTierRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{MembershipTierRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByActiveTrue" -> tiers.stream()
+                            .filter(MembershipTier::getActive)
+                            .toList();
+                    case "findByTierLevel" -> tiers.stream()
+                            .filter(tier -> tier.getTierLevel() == args[0])
+                            .findFirst();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+    
+    private static MembershipTier tier(String name, MembershipTier.TierLevel level,
+                                       int minOrderCount, long minOrderValue) {
+        MembershipTier tier = new MembershipTier();
+        tier.setName(name);
+        tier.setTierLevel(level);
+        tier.setMinOrderCount(minOrderCount);
+        tier.setMinOrderValue(minOrderValue);
+        tier.setActive(true);
+        return tier;
+    }
+}
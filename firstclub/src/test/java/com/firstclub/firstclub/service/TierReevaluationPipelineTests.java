@@ -0,0 +1,59 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.dto.SubscriptionRequest;
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that crossing a tier threshold through order stats upgrades the
+ * active subscription once the pipeline runs.
+ */
+@SpringBootTest(properties = {
+        "firstclub.order-stats.flush-interval-ms=3600000",
+        "firstclub.tier-reevaluation.interval-ms=3600000"
+})
+class TierReevaluationPipelineTests {
+    
+    @Autowired
+    private OrderStatsAccumulator orderStatsAccumulator;
+    
+    @Autowired
+    private TierReevaluationPipeline tierReevaluationPipeline;
+    
+    @Autowired
+    private SubscriptionService subscriptionService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Test
+    void upgradesWhenOrderStatsCrossThreshold() {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Tier Upgrade");
+        user = userRepository.save(user);
+        MembershipPlan plan = planRepository.findByActiveTrue().get(0);
+        subscriptionService.createSubscription(new SubscriptionRequest(user.getId(), plan.getId(), false));
+        assertThat(subscriptionService.getActiveSubscription(user.getId()).getTierName()).isEqualTo("Silver");
+        
+        for (int i = 0; i < 10; i++) {
+            orderStatsAccumulator.record(user.getId(), 5000);
+        }
+        orderStatsAccumulator.flush();
+        tierReevaluationPipeline.processPending();
+        
+        assertThat(subscriptionService.getActiveSubscription(user.getId()).getTierName()).isEqualTo("Gold");
+    }
+}
@@ -0,0 +1,185 @@
+package com.firstclub.firstclub.service;
+
+import com.firstclub.firstclub.config.TierRerankProperties;
+import com.firstclub.firstclub.dto.TierRerankStatusDTO;
+import com.firstclub.firstclub.model.MembershipPlan;
+import com.firstclub.firstclub.model.MembershipTier;
+import com.firstclub.firstclub.model.Subscription;
+import com.firstclub.firstclub.model.User;
+import com.firstclub.firstclub.repository.MembershipPlanRepository;
+import com.firstclub.firstclub.repository.MembershipTierRepository;
+import com.firstclub.firstclub.repository.SubscriptionRepository;
+import com.firstclub.firstclub.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the tier re-ranking job to completion and cancels a slowed-down run,
+ * checking its reported progress, and counts the updates one reassignment
+ * issues per (current tier, target tier) pair.
+ * 
+ * Runs against its own database so the job sees only the subscriptions created
+ * here.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tier-rerank;NON_KEYWORDS=VALUE",
+        "firstclub.tier-rerank.range-size=2",
+        "firstclub.tier-rerank.parallelism=1",
+        "firstclub.tier-reevaluation.interval-ms=3600000"
+})
+class TierRerankJobTests {
+    
+    private static final String UPDATE_EXECUTIONS_SQL = "SELECT COALESCE(SUM(EXECUTION_COUNT), 0) " +
+            "FROM INFORMATION_SCHEMA.QUERY_STATISTICS WHERE SQL_STATEMENT LIKE 'UPDATE subscriptions SET tier_id%'";
+    
+    @Autowired
+    private TierRerankJob tierRerankJob;
+    
+    @Autowired
+    private TierReassigner tierReassigner;
+    
+    @Autowired
+    private TierRerankProperties properties;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MembershipPlanRepository planRepository;
+    
+    @Autowired
+    private MembershipTierRepository tierRepository;
+    
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private MembershipPlan plan;
+    private MembershipTier silver;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM subscriptions");
+        plan = planRepository.findByActiveTrue().get(0);
+        silver = tierRepository.findByTierLevel(MembershipTier.TierLevel.SILVER).orElseThrow();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        properties.setPauseMs(0);
+        awaitFinished();
+    }
+    
+    @Test
+    void runMovesEverySubscriptionToItsEligibleTier() throws InterruptedException {
+        List<Long> gold = createSubscriptions(3, 10, 50_000L);
+        List<Long> platinum = createSubscriptions(2, 25, 150_000L);
+        List<Long> unchanged = createSubscriptions(1, 0, 0L);
+        
+        TierRerankStatusDTO started = tierRerankJob.start();
+        assertThat(started.getState()).isEqualTo(TierRerankStatusDTO.State.RUNNING);
+        TierRerankStatusDTO finished = awaitFinished();
+        
+        assertThat(finished.getState()).isEqualTo(TierRerankStatusDTO.State.COMPLETED);
+        assertThat(finished.getScanned()).isEqualTo(6);
+        assertThat(finished.getChanged()).isEqualTo(5);
+        assertThat(finished.getFailedRanges()).isZero();
+        assertThat(finished.getCompletedRanges()).isEqualTo(finished.getTotalRanges()).isGreaterThan(1);
+        assertThat(finished.getPercentComplete()).isEqualTo(100.0);
+        assertThat(finished.getFinishedAt()).isNotNull();
+        
+        assertTier(gold, MembershipTier.TierLevel.GOLD);
+        assertTier(platinum, MembershipTier.TierLevel.PLATINUM);
+        assertTier(unchanged, MembershipTier.TierLevel.SILVER);
+    }
+    
+    @Test
+    void cancelStopsRunBeforeAllRanges() throws InterruptedException {
+        createSubscriptions(10, 10, 50_000L);
+        properties.setPauseMs(200);
+        
+        tierRerankJob.start();
+        assertThatThrownBy(() -> tierRerankJob.start()).hasMessage("Tier re-ranking is already running");
+        tierRerankJob.cancel();
+        TierRerankStatusDTO finished = awaitFinished();
+        
+        assertThat(finished.getState()).isEqualTo(TierRerankStatusDTO.State.CANCELLED);
+        assertThat(finished.getCompletedRanges()).isLessThan(finished.getTotalRanges());
+        assertThat(finished.getPercentComplete()).isLessThan(100.0);
+        assertThatThrownBy(() -> tierRerankJob.cancel()).hasMessage("Tier re-ranking is not running");
+    }
+    
+    @Test
+    void reassignIssuesOneUpdatePerTierPair() {
+        List<Long> ids = new ArrayList<>();
+        ids.addAll(createSubscriptions(3, 10, 50_000L));
+        ids.addAll(createSubscriptions(2, 25, 150_000L));
+        List<TierReassigner.Candidate> candidates =
+                tierReassigner.loadByIdRange(ids.get(0), ids.get(ids.size() - 1));
+        
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        try {
+            long before = jdbcTemplate.queryForObject(UPDATE_EXECUTIONS_SQL, Long.class);
+            assertThat(tierReassigner.reassign(candidates, false)).isEqualTo(5);
+            long after = jdbcTemplate.queryForObject(UPDATE_EXECUTIONS_SQL, Long.class);
+            
+            assertThat(after - before).isEqualTo(2);
+        } finally {
+            jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        }
+    }
+    
+    private TierRerankStatusDTO awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        TierRerankStatusDTO status = tierRerankJob.getStatus();
+        while (status.getState() == TierRerankStatusDTO.State.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = tierRerankJob.getStatus();
+        }
+        return status;
+    }
+    
+    private void assertTier(List<Long> subscriptionIds, MembershipTier.TierLevel level) {
+        assertThat(subscriptionRepository.findWithAssociationsByIdInAndStatus(
+                subscriptionIds, Subscription.SubscriptionStatus.ACTIVE))
+                .hasSize(subscriptionIds.size())
+                .allSatisfy(s -> assertThat(s.getTier().getTierLevel()).isEqualTo(level));
+    }
+    
+    private List<Long> createSubscriptions(int count, int orderCount, long orderValue) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setEmail(UUID.randomUUID() + "@example.com");
+            user.setName("Rerank");
+            user.setTotalOrderCount(orderCount);
+            user.setTotalOrderValue(orderValue);
+            user = userRepository.save(user);
+            
+            Subscription subscription = new Subscription();
+            subscription.setUser(user);
+            subscription.setPlan(plan);
+            subscription.setTier(silver);
+            subscription.setStatus(Subscription.SubscriptionStatus.ACTIVE);
+            subscription.setStartDate(LocalDateTime.now());
+            subscription.setEndDate(LocalDateTime.now().plusDays(plan.getDurationInDays()));
+            subscription.setAutoRenew(false);
+            ids.add(subscriptionRepository.save(subscription).getId());
+        }
+        return ids;
+    }
+}
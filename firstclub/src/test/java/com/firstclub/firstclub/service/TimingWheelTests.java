@@ -0,0 +1,84 @@
+package com.firstclub.firstclub.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the timing wheel with a simulated clock.
+ */
+class TimingWheelTests {
+    
+    private static final long SECOND = 1000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    
+    private static final long START = 1_700_000_123_456L;
+    
+    @Test
+    void firesEveryLevelWithinASecondOfItsDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(START, 3);
+        Map<String, Long> deadlines = Map.of(
+                "seconds", START + 1_500,
+                "minutes", START + 90 * SECOND + 250,
+                "hours", START + 2 * HOUR + 17 * SECOND,
+                "days", START + 30 * HOUR + 3 * MINUTE + 999);
+        deadlines.forEach((key, deadline) -> assertThat(wheel.schedule(key, deadline)).isTrue());
+        
+        Map<String, Long> firedAt = new HashMap<>();
+        for (long now = START; now <= START + 31 * HOUR; now += 250) {
+            for (String key : wheel.advance(now)) {
+                firedAt.put(key, now);
+            }
+        }
+        
+        assertThat(firedAt).containsOnlyKeys(deadlines.keySet());
+        deadlines.forEach((key, deadline) -> assertThat(firedAt.get(key))
+                .as("fire time of %s", key)
+                .isGreaterThanOrEqualTo(deadline)
+                .isLessThanOrEqualTo(deadline + SECOND));
+        assertThat(wheel.size()).isZero();
+    }
+    
+    @Test
+    void cancelAndRescheduleReplaceTheDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(START, 2);
+        wheel.schedule(1L, START + 10 * MINUTE);
+        wheel.schedule(2L, START + 10 * MINUTE);
+        wheel.schedule(2L, START + 5 * SECOND);
+        assertThat(wheel.cancel(1L)).isTrue();
+        assertThat(wheel.cancel(1L)).isFalse();
+        
+        assertThat(wheel.advance(START + 4 * SECOND)).isEmpty();
+        assertThat(wheel.advance(START + 7 * SECOND)).containsExactly(2L);
+        assertThat(wheel.advance(START + 11 * MINUTE)).isEmpty();
+    }
+    
+    @Test
+    void overdueDeadlinesFireOnNextAdvance() {
+        TimingWheel<Long> wheel = new TimingWheel<>(START, 2);
+        wheel.schedule(1L, START - HOUR);
+        wheel.schedule(2L, START + HOUR);
+        
+        assertThat(wheel.advance(START)).containsExactly(1L);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+    
+    @Test
+    void rejectsDeadlinesBeyondHorizonUntilTheyComeWithinIt() {
+        TimingWheel<Long> wheel = new TimingWheel<>(START, 2);
+        long deadline = START + 3 * 24 * HOUR;
+        assertThat(deadline).isGreaterThanOrEqualTo(wheel.horizon());
+        assertThat(wheel.schedule(1L, deadline)).isFalse();
+        assertThat(wheel.size()).isZero();
+        
+        List<Long> fired = wheel.advance(START + 2 * 24 * HOUR);
+        assertThat(fired).isEmpty();
+        assertThat(wheel.schedule(1L, deadline)).isTrue();
+        assertThat(wheel.advance(deadline + SECOND)).containsExactly(1L);
+    }
+}
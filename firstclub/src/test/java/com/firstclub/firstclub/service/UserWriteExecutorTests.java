@@ -0,0 +1,50 @@
+package com.firstclub.firstclub.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that only a one-active-subscription conflict is retried.
+ */
+@SpringBootTest
+class UserWriteExecutorTests {
+    
+    @Autowired
+    private UserWriteExecutor userWriteExecutor;
+    
+    @Test
+    void retriesActiveUserConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        String result = userWriteExecutor.execute(1L, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new DataIntegrityViolationException("could not execute statement",
+                        new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_SUBSCRIPTIONS_ACTIVE_USER_ID\""));
+            }
+            return "written";
+        });
+        
+        assertThat(result).isEqualTo("written");
+        assertThat(attempts).hasValue(2);
+    }
+    
+    @Test
+    void rethrowsOtherIntegrityViolationsUnchanged() {
+        AtomicInteger attempts = new AtomicInteger();
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Referential integrity constraint violation: \"FK_SUBSCRIPTIONS_PLAN\""));
+        
+        assertThatThrownBy(() -> userWriteExecutor.execute(1L, () -> {
+            attempts.incrementAndGet();
+            throw failure;
+        })).isSameAs(failure);
+        assertThat(attempts).hasValue(1);
+    }
+}